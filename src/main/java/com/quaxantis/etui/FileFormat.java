@@ -0,0 +1,60 @@
+package com.quaxantis.etui;
+
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Identifies the format of a file by its exiftool {@code FileType}, its MIME type and its extension.
+ * Tag families and templates declare the file types they apply to using any of these identifiers.
+ */
+public record FileFormat(@Nullable String fileType, @Nullable String mimeType, @Nullable String extension) {
+
+    public static final FileFormat UNKNOWN = new FileFormat(null, null, null);
+
+    private static final Map<String, String> ALIASES = Map.of(
+            "JPG", "JPEG",
+            "JPE", "JPEG",
+            "TIF", "TIFF"
+    );
+
+    public static FileFormat of(@Nonnull TagSet tagSet, @Nullable Path file) {
+        String fileType = tagSet.getTag("File", "FileType").map(TagValue::value).orElse(null);
+        String mimeType = tagSet.getTag("File", "MIMEType").map(TagValue::value).orElse(null);
+        String extension = (file != null && file.getFileName().toString().contains(".")) ?
+                StringUtils.substringAfterLast(file.getFileName().toString(), ".") :
+                tagSet.getTag("File", "FileTypeExtension").map(TagValue::value).orElse(null);
+        return new FileFormat(fileType, mimeType, extension);
+    }
+
+    public boolean isKnown() {
+        return fileType != null || mimeType != null || extension != null;
+    }
+
+    /**
+     * Returns the normalized identifiers of this format, to match against declared file types.
+     */
+    public Set<String> keys() {
+        Set<String> keys = new LinkedHashSet<>(3);
+        Stream.of(fileType, mimeType, extension)
+                .filter(StringUtils::isNotBlank)
+                .map(FileFormat::normalize)
+                .forEach(keys::add);
+        return keys;
+    }
+
+    /**
+     * Normalizes the case, and common extensions to the file type they stand for, such as {@code jpg} to {@code JPEG}.
+     */
+    public static String normalize(@Nonnull String fileType) {
+        String normalized = fileType.trim().toUpperCase(Locale.ROOT);
+        return ALIASES.getOrDefault(normalized, normalized);
+    }
+}
@@ -0,0 +1,66 @@
+package com.quaxantis.etui;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Index of elements by the file types they apply to.
+ * Elements that do not declare any file type apply to all files.
+ * Lookups preserve the order of the indexed elements.
+ */
+public final class FileFormatIndex<T> {
+    private final List<T> elements;
+    private final BitSet generic;
+    private final Map<String, BitSet> byFileType;
+
+    private FileFormatIndex(List<T> elements, BitSet generic, Map<String, BitSet> byFileType) {
+        this.elements = elements;
+        this.generic = generic;
+        this.byFileType = byFileType;
+    }
+
+    public static <T> FileFormatIndex<T> of(@Nonnull List<? extends T> elements, @Nonnull Function<? super T, ? extends Collection<String>> fileTypes) {
+        List<T> list = List.copyOf(elements);
+        BitSet generic = new BitSet(list.size());
+        Map<String, BitSet> byFileType = new HashMap<>();
+        for (int i = 0; i < list.size(); i++) {
+            Collection<String> types = fileTypes.apply(list.get(i));
+            if (types == null || types.isEmpty()) {
+                generic.set(i);
+            } else {
+                for (String type : types) {
+                    byFileType.computeIfAbsent(FileFormat.normalize(type), _ -> new BitSet(list.size())).set(i);
+                }
+            }
+        }
+        return new FileFormatIndex<>(list, generic, Map.copyOf(byFileType));
+    }
+
+    public List<T> all() {
+        return this.elements;
+    }
+
+    public List<T> applicableTo(@Nonnull FileFormat format) {
+        if (!format.isKnown()) {
+            return this.elements;
+        }
+
+        BitSet selected = (BitSet) this.generic.clone();
+        for (String key : format.keys()) {
+            BitSet matching = this.byFileType.get(key);
+            if (matching != null) {
+                selected.or(matching);
+            }
+        }
+
+        List<T> result = new ArrayList<>(selected.cardinality());
+        selected.stream().forEach(i -> result.add(this.elements.get(i)));
+        return result;
+    }
+}
@@ -2,6 +2,7 @@ package com.quaxantis.etui;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Predicate;
 
 public interface TagFamily extends HasLabel {
@@ -11,6 +12,13 @@ public interface TagFamily extends HasLabel {
 
     List<? extends Tag> tags();
 
+    /**
+     * Returns the file types this family applies to, or an empty set if it applies to all files.
+     */
+    default Set<String> fileTypes() {
+        return Set.of();
+    }
+
     default TagFamily filter(Predicate<Tag> predicate) {
         List<? extends Tag> filtered = tags().stream().filter(predicate).toList();
         class Filtered extends TagFamilyAdapter {
@@ -2,6 +2,7 @@ package com.quaxantis.etui;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 abstract class TagFamilyAdapter implements TagFamily {
     private final TagFamily delegate;
@@ -25,6 +26,11 @@ abstract class TagFamilyAdapter implements TagFamily {
         return delegate.tags();
     }
 
+    @Override
+    public Set<String> fileTypes() {
+        return delegate.fileTypes();
+    }
+
     @Override
     public String label() {
         return delegate.label();
@@ -18,6 +18,22 @@ public interface Template {
 
     Collection<Tag> tags(Variable variable);
 
+    /**
+     * Returns the variables that are mapped to the given tag.
+     */
+    default List<Variable> variables(Tag tag) {
+        return variables().stream()
+                .filter(variable -> tags(variable).stream().anyMatch(tag::isSameTagAs))
+                .toList();
+    }
+
+    /**
+     * Returns the file types this template applies to, or an empty set if it applies to all files.
+     */
+    default Set<String> fileTypes() {
+        return Set.of();
+    }
+
     ExpressionEvaluator expressionEvaluator();
 
 
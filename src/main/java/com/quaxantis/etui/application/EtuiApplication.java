@@ -56,7 +56,7 @@ public class EtuiApplication implements TagSetHandler {
 
     public EtuiApplication() {
         this.configOperations = new ConfigOperations();
-        this.tagRepository = new TagRepository(this.configOperations.getConfiguration());
+        this.tagRepository = new TagRepository(this.configOperations.getConfiguration()).cached();
         this.fileStateMachine = new FileStateMachine(this, tagRepository);
         var templateRepository = new TemplateRepository(this.configOperations.getConfiguration(), this.tagRepository);
         this.ui = new ExiftoolSwingUI(this.configOperations, this.fileStateMachine, this.tagRepository, templateRepository);
@@ -8,6 +8,7 @@ import com.quaxantis.etui.TagValue;
 import com.quaxantis.etui.tag.TagRepository;
 import org.apache.commons.text.StringEscapeUtils;
 
+import javax.annotation.Nullable;
 import java.io.FilterReader;
 import java.io.IOException;
 import java.io.Reader;
@@ -17,7 +18,6 @@ import java.nio.file.Path;
 import java.util.Map;
 import java.util.Spliterator;
 import java.util.Spliterators;
-import java.util.function.UnaryOperator;
 import java.util.stream.StreamSupport;
 
 public sealed abstract class ExiftoolOutput<R> {
@@ -175,18 +175,20 @@ public sealed abstract class ExiftoolOutput<R> {
                 throw new IllegalStateException("Expected exiftool output to be an array with an object");
             }
 
-            UnaryOperator<Tag> enrich = (tagRepository == null) ? UnaryOperator.identity() : tagRepository.cached()::enrichTag;
             Spliterator<Map.Entry<String, JsonNode>> spliterator = Spliterators.spliterator(json.fields(), json.size(), Spliterator.NONNULL);
             return StreamSupport.stream(spliterator, false)
-                    .map(entry -> ofJsonKey(entry.getKey(), entry.getValue(), enrich))
+                    .map(entry -> ofJsonKey(entry.getKey(), entry.getValue(), tagRepository))
                     .collect(TagSet.toTagSet());
         }
 
-        private static TagValue ofJsonKey(String key, JsonNode jsonValue, UnaryOperator<Tag> enrich) {
+        private static TagValue ofJsonKey(String key, JsonNode jsonValue, @Nullable TagRepository tagRepository) {
             String value = StringEscapeUtils.unescapeHtml4(jsonValue.asText());
             int colon = key.indexOf(':');
-            Tag tag = (colon < 0) ? Tag.of(null, key) : Tag.of(key.substring(0, colon), key.substring(colon + 1));
-            return TagValue.of(enrich.apply(tag), value);
+            String groupName = (colon < 0) ? null : key.substring(0, colon);
+            String tagName = (colon < 0) ? key : key.substring(colon + 1);
+            return (tagRepository == null)
+                    ? TagValue.of(Tag.of(groupName, tagName), value)
+                    : tagRepository.tagValue(groupName, tagName, value);
         }
     }
 
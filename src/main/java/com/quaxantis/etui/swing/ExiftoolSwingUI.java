@@ -34,7 +34,7 @@ public class ExiftoolSwingUI implements ExiftoolUI {
         ToolTips.setToolTipBackground(new Color(255, 250, 227));
 
         var fileActions = new FileActions(fileStateMachine, configOperations);
-        var viewActions = new ViewActions(configOperations);
+        var viewActions = new ViewActions(configOperations, templateRepository);
         this.frame = createFrame(fileActions, viewActions, configOperations);
         this.tagSetUI = createTagSetUI(fileStateMachine, tagRepository, templateRepository, configOperations);
 
@@ -1,5 +1,6 @@
 package com.quaxantis.etui.swing;
 
+import com.quaxantis.etui.FileFormat;
 import com.quaxantis.etui.TagSet;
 import com.quaxantis.etui.application.config.ConfigOperations;
 import com.quaxantis.etui.application.config.Configuration;
@@ -50,8 +51,9 @@ class TagSetUI extends JPanel {
 
     void setTagSet(@Nonnull TagSet tagSet, @Nullable Path file) {
         replaceUI(() -> {
-            var tagTableUi = createTagTableUI(tagSet, fileStateMachine, tagRepository, configOperations.getConfiguration());
-            var tabbedPane = createTabs(templateRepository, configOperations, tagTableUi, fileStateMachine, file);
+            var fileFormat = FileFormat.of(tagSet, file);
+            var tagTableUi = createTagTableUI(tagSet, fileFormat, fileStateMachine, tagRepository, configOperations.getConfiguration());
+            var tabbedPane = createTabs(templateRepository, configOperations, tagTableUi, fileFormat, fileStateMachine, file);
             this.add(tabbedPane);
             return tagTableUi;
         });
@@ -65,8 +67,8 @@ class TagSetUI extends JPanel {
         this.repaint();
     }
 
-    private static TagTableUI createTagTableUI(TagSet tagSet, FileStateMachine fileStateMachine, TagRepository tagRepository, Configuration configuration) {
-        var tagTableUi = new TagTableUI(tagSet, tagRepository, configuration);
+    private static TagTableUI createTagTableUI(TagSet tagSet, FileFormat fileFormat, FileStateMachine fileStateMachine, TagRepository tagRepository, Configuration configuration) {
+        var tagTableUi = new TagTableUI(tagSet, fileFormat, tagRepository, configuration);
 
         tagTableUi.addChangeListener(_ -> {
             boolean hasChanges = tagTableUi.getChanges().stream().findAny().isPresent();
@@ -83,6 +85,7 @@ class TagSetUI extends JPanel {
     private static JTabbedPane createTabs(@Nonnull TemplateRepository templateRepository,
                                           @Nonnull ConfigOperations configOperations,
                                           @Nonnull TagTableUI tagTableUi,
+                                          @Nonnull FileFormat fileFormat,
                                           @Nonnull FileStateMachine fileStateMachine,
                                           @Nullable Path file) {
         var tabbedPane = new JTabbedPane() {
@@ -98,7 +101,7 @@ class TagSetUI extends JPanel {
             }
         };
 
-        var templateUi = createTemplateUI(templateRepository, configOperations, tagTableUi, tabbedPane);
+        var templateUi = createTemplateUI(templateRepository, fileFormat, configOperations, tagTableUi, tabbedPane);
         Container templateContainer = templateUi.getUIContainer();
         tabbedPane.addTabListener((JTabbedPane pane, int index) -> {
             if (index == pane.indexOfComponent(templateContainer)) {
@@ -116,8 +119,8 @@ class TagSetUI extends JPanel {
         return tabbedPane;
     }
 
-    private static TemplateUI createTemplateUI(TemplateRepository templateRepository, ConfigOperations configOperations, TagTableUI tagTable, JTabbedPane tabbedPane) {
-        return new TemplateUI(templateRepository, configOperations, "Apply", tagSetSupplier -> _ -> {
+    private static TemplateUI createTemplateUI(TemplateRepository templateRepository, FileFormat fileFormat, ConfigOperations configOperations, TagTableUI tagTable, JTabbedPane tabbedPane) {
+        return new TemplateUI(templateRepository, fileFormat, configOperations, "Apply", tagSetSupplier -> _ -> {
             tagTable.mergeTags(tagSetSupplier.get());
             tabbedPane.setSelectedIndex(0);
         });
@@ -2,6 +2,7 @@ package com.quaxantis.etui.swing.actions;
 
 import com.quaxantis.etui.application.config.ConfigOperations;
 import com.quaxantis.etui.swing.menu.ActionBuilder;
+import com.quaxantis.etui.template.TemplateRepository;
 
 import javax.swing.AbstractButton;
 import javax.swing.Action;
@@ -12,8 +13,9 @@ import java.util.function.Supplier;
 public final class ViewActions {
     private final Action hideReadOnly;
     private final Supplier<Boolean> getHideReadOnly;
+    private final Action reloadTemplates;
 
-    public ViewActions(ConfigOperations configOperations) {
+    public ViewActions(ConfigOperations configOperations, TemplateRepository templateRepository) {
         this.getHideReadOnly = () -> configOperations.getConfiguration().getViewFilter().isReadOnlyHidden();
         this.hideReadOnly = ActionBuilder.withName("Hide read-only tags")
                 .withMnemonic('h')
@@ -21,6 +23,9 @@ public final class ViewActions {
                         filter -> event.getSource() instanceof AbstractButton button ?
                                 filter.withReadOnlyHidden(button.isSelected()) :
                                 filter.toggleReadOnlyHidden()));
+        this.reloadTemplates = ActionBuilder.withName("Reload templates")
+                .withMnemonic('r')
+                .withAction(templateRepository::invalidate);
     }
 
     public Action hideReadOnly() {
@@ -35,4 +40,8 @@ public final class ViewActions {
         };
     }
 
+    public Action reloadTemplates() {
+        return this.reloadTemplates;
+    }
+
 }
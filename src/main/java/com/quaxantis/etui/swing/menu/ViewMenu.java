@@ -5,11 +5,14 @@ import com.quaxantis.etui.swing.actions.ViewActions;
 import javax.swing.AbstractButton;
 import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JMenu;
+import javax.swing.JMenuItem;
 
 public class ViewMenu extends JMenu {
     public ViewMenu(ViewActions viewActions) {
         super("View");
         this.setMnemonic('V');
         add(viewActions.hideReadOnly(JCheckBoxMenuItem::new).apply(AbstractButton::setSelected));
+        addSeparator();
+        add(new JMenuItem(viewActions.reloadTemplates()));
     }
 }
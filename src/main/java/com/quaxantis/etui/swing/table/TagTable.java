@@ -1,6 +1,6 @@
 package com.quaxantis.etui.swing.table;
 
-import com.quaxantis.etui.Tag;
+import com.quaxantis.etui.FileFormat;
 import com.quaxantis.etui.TagSet;
 import com.quaxantis.etui.TagValue;
 import com.quaxantis.etui.application.config.Configuration;
@@ -42,9 +42,9 @@ class TagTable extends JTable {
 
     private final Actions actions;
 
-    static TagTable of(TagSet tagSet, TagRepository tagRepository, Configuration configuration) {
+    static TagTable of(TagSet tagSet, FileFormat fileFormat, TagRepository tagRepository, Configuration configuration) {
         var modelWithStats = TagTableModel.createWithStats(tagSet);
-        var table = new TagTable(modelWithStats.value(), tagRepository, configuration);
+        var table = new TagTable(modelWithStats.value(), fileFormat, tagRepository, configuration);
         var fontMetrics = table.getFontMetrics(table.getFont());
         var columns = table.getColumnModel();
         for (int i = 0; i < columns.getColumnCount(); i++) {
@@ -57,7 +57,7 @@ class TagTable extends JTable {
         return table;
     }
 
-    private TagTable(TagTableModel model, TagRepository tagRepository, Configuration configuration) {
+    private TagTable(TagTableModel model, FileFormat fileFormat, TagRepository tagRepository, Configuration configuration) {
         super(model);
         setRowSorter(new TableRowSorter<TagTableModel>(model));
         setAutoCreateRowSorter(false);
@@ -70,8 +70,8 @@ class TagTable extends JTable {
         setAutoResizeMode(JTable.AUTO_RESIZE_LAST_COLUMN);
         setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         setSurrendersFocusOnKeystroke(true);
-        setTransferHandler(new TagTransferHandler(super.getTransferHandler()));
-        this.actions = new Actions(tagRepository);
+        setTransferHandler(new TagTransferHandler(super.getTransferHandler(), tagRepository));
+        this.actions = new Actions(tagRepository, fileFormat);
 
     }
 
@@ -239,8 +239,11 @@ class TagTable extends JTable {
             MERGE
         }
 
-        private TagTransferHandler(TransferHandler delegate) {
+        private final TagRepository tagRepository;
+
+        private TagTransferHandler(TransferHandler delegate, TagRepository tagRepository) {
             super(delegate);
+            this.tagRepository = tagRepository;
         }
 
         @Override
@@ -299,7 +302,7 @@ class TagTable extends JTable {
             if (parts.length != 3) {
                 throw new IllegalArgumentException("Unexpected text format does not match table: \"%s\"".formatted(pasteLine.replaceAll("\\t", "\\\\t")));
             }
-            return TagValue.of(Tag.of(parts[0], parts[1]), parts[2]);
+            return this.tagRepository.tagValue(parts[0], parts[1], parts[2]);
         }
     }
 
@@ -313,7 +316,7 @@ class TagTable extends JTable {
         private final Action pasteTags;
         private final Action pasteMergeTags;
 
-        public Actions(TagRepository tagRepository) {
+        public Actions(TagRepository tagRepository, FileFormat fileFormat) {
             disablePressedKeys(0, KeyEvent.VK_INSERT, KeyEvent.VK_ENTER, KeyEvent.VK_BACK_SPACE, KeyEvent.VK_DELETE);
             disablePressedKeys(KeyEvent.SHIFT_DOWN_MASK, KeyEvent.VK_ENTER);
 
@@ -324,7 +327,7 @@ class TagTable extends JTable {
                     .withAccelerator(getKeyStroke(KeyEvent.VK_INSERT, 0, true))
                     .bindTo(table, WHEN_ANCESTOR_OF_FOCUSED_COMPONENT)
                     .withAction(() -> {
-                        var tag = TagEntryUI.openDialog((Frame) getTopLevelAncestor(), tagRepository, "Add a tag", "Add", true);
+                        var tag = TagEntryUI.openDialog((Frame) getTopLevelAncestor(), tagRepository, fileFormat, "Add a tag", "Add", true);
                         tag.ifPresent(table::addTag);
                     });
 
@@ -361,7 +364,7 @@ class TagTable extends JTable {
                     .bindTo(table, WHEN_ANCESTOR_OF_FOCUSED_COMPONENT)
                     .enabledIf(activeTag(EditableTagValue::canBeEdited), table::addCellSelectionListener)
                     .withAction(onActiveCell(cell -> {
-                        var tag = TagEntryUI.openDialog((Frame) table.getTopLevelAncestor(), tagRepository, "Edit a tag", "Update", true, cell.tag());
+                        var tag = TagEntryUI.openDialog((Frame) table.getTopLevelAncestor(), tagRepository, fileFormat, "Edit a tag", "Update", true, cell.tag());
                         tag.ifPresent(replacement -> table.setTag(cell.row(), cell.tag().replaceWith(replacement)));
                     }));
 
@@ -1,5 +1,6 @@
 package com.quaxantis.etui.swing.table;
 
+import com.quaxantis.etui.FileFormat;
 import com.quaxantis.etui.TagSet;
 import com.quaxantis.etui.application.config.Configuration;
 import com.quaxantis.etui.swing.menu.ActionBuilder;
@@ -28,8 +29,8 @@ public class TagTableUI {
     private final JScrollPane scrollPane;
     private final EventListenerList listenerList;
 
-    public TagTableUI(TagSet tagSet, TagRepository tagRepository, Configuration configuration) {
-        this.table = createTable(tagSet, tagRepository, configuration);
+    public TagTableUI(TagSet tagSet, FileFormat fileFormat, TagRepository tagRepository, Configuration configuration) {
+        this.table = createTable(tagSet, fileFormat, tagRepository, configuration);
         this.scrollPane = createScrollPane(this.table);
         this.listenerList = new EventListenerList();
         initialize();
@@ -74,8 +75,8 @@ public class TagTableUI {
         this.table.getModel().addTableModelListener(e -> fireChange());
     }
 
-    private static TagTable createTable(TagSet tagSet, TagRepository tagRepository, Configuration configuration) {
-        TagTable table = TagTable.of(tagSet, tagRepository, configuration);
+    private static TagTable createTable(TagSet tagSet, FileFormat fileFormat, TagRepository tagRepository, Configuration configuration) {
+        TagTable table = TagTable.of(tagSet, fileFormat, tagRepository, configuration);
         return table;
     }
 
@@ -1,5 +1,6 @@
 package com.quaxantis.etui.swing.tagentry;
 
+import com.quaxantis.etui.FileFormat;
 import com.quaxantis.etui.Tag;
 import com.quaxantis.etui.TagValue;
 import com.quaxantis.etui.application.config.Configuration;
@@ -17,12 +18,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.ActionListener;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 import java.util.StringJoiner;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class TagEntryUI {
@@ -70,19 +74,19 @@ public class TagEntryUI {
 
         JFrame jFrame = new JFrame("TagEntryUI");
         jFrame.setVisible(true);
-        openDialog(jFrame, new TagRepository(config), "Test", "Test", true, tagValue)
+        openDialog(jFrame, new TagRepository(config), FileFormat.UNKNOWN, "Test", "Test", true, tagValue)
                 .ifPresent(System.out::println);
         jFrame.dispose();
     }
 
-    public static Optional<TagValue> openDialog(Frame owner, TagRepository tagRepository, String title, String action, boolean modal) {
-        return openDialog(owner, tagRepository, title, action, modal, null);
+    public static Optional<TagValue> openDialog(Frame owner, TagRepository tagRepository, FileFormat fileFormat, String title, String action, boolean modal) {
+        return openDialog(owner, tagRepository, fileFormat, title, action, modal, null);
     }
 
-    public static Optional<TagValue> openDialog(Frame owner, TagRepository tagRepository, String title, String action, boolean modal, TagValue tagValue) {
+    public static Optional<TagValue> openDialog(Frame owner, TagRepository tagRepository, FileFormat fileFormat, String title, String action, boolean modal, TagValue tagValue) {
         JDialog dialog = new JDialog(owner, title, modal);
         AtomicBoolean actionPerformed = new AtomicBoolean(false);
-        TagEntryUI ui = new TagEntryUI(action, tagRepository, tagValue, _ -> {
+        TagEntryUI ui = new TagEntryUI(action, tagRepository, fileFormat, tagValue, _ -> {
             actionPerformed.set(true);
             dialog.dispose();
         });
@@ -100,18 +104,20 @@ public class TagEntryUI {
 
     private static final Logger log = LoggerFactory.getLogger(TagEntryUI.class);
     private static final int PAD = 10;
+    private static final int SEARCH_LIMIT = 50;
+    private static final int SEARCH_DELAY_MILLIS = 250;
 
     private final TagRepository tagRepository;
     private final SimpleForm<TagValueBean> form;
     private final Container uiContainer;
 
-    public TagEntryUI(String action, TagRepository tagRepository, TagValue tagValue, ActionListener actionlistener) {
+    public TagEntryUI(String action, TagRepository tagRepository, FileFormat fileFormat, TagValue tagValue, ActionListener actionlistener) {
         this.tagRepository = tagRepository;
-        var tagTree = createTagTree(tagRepository);
+        var tagTree = createTagTree(tagRepository, fileFormat);
         this.form = createForm(tagTree);
         var actionBar = createActionBar(this.form, action, actionlistener);
         var tagEntryPanel = createTagEntryPanel(this.form, actionBar);
-        this.uiContainer = composeUI(tagTree, tagEntryPanel, this.form);
+        this.uiContainer = composeUI(tagRepository, tagTree, tagEntryPanel, this.form);
         if (tagValue != null) {
             tagTree.selectTag(tagValue.tag());
             setTag(tagValue);
@@ -132,8 +138,8 @@ public class TagEntryUI {
         this.form.setData(new TagValueBean(tagValue));
     }
 
-    private static Container composeUI(TagTree tagTree, Container tagEntryPanel, SimpleForm<TagValueBean> form) {
-        var listPanel = createTagListPanel(tagTree);
+    private static Container composeUI(TagRepository tagRepository, TagTree tagTree, Container tagEntryPanel, SimpleForm<TagValueBean> form) {
+        var listPanel = createTagListPanel(tagRepository, tagTree);
         var infoPanel = createTagInfoPanel(tagTree);
         infoPanel.setPreferredSize(new Dimension(200, 120));
         var tagSelectionPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
@@ -180,11 +186,69 @@ public class TagEntryUI {
         return form;
     }
 
-    private static Container createTagListPanel(TagTree tagTree) {
+    private static Container createTagListPanel(TagRepository tagRepository, TagTree tagTree) {
         JScrollPane scrollPane = new JScrollPane(tagTree);
         scrollPane.setPreferredSize(Dimensions.updateWidth(scrollPane.getPreferredSize(),
                                                            width -> width + tagTree.getPreferredExpansion()));
-        return scrollPane;
+
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(createSearchField(tagRepository, tagTree), BorderLayout.NORTH);
+        panel.add(scrollPane, BorderLayout.CENTER);
+        return panel;
+    }
+
+    private static JTextField createSearchField(TagRepository tagRepository, TagTree tagTree) {
+        JTextField searchField = new JTextField();
+        searchField.setToolTipText("Search tags by name, label or description");
+        // Searches once typing pauses
+        Timer searchTimer = new Timer(SEARCH_DELAY_MILLIS, _ -> search(tagRepository, tagTree, searchField));
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+        });
+        return searchField;
+    }
+
+    // Searches in the background, as the first search builds the index and loads all tag descriptions.
+    // Selects the best match that is shown in the tree, unless the query changed in the meantime.
+    private static void search(TagRepository tagRepository, TagTree tagTree, JTextField searchField) {
+        String query = searchField.getText();
+        new SwingWorker<List<Tag>, Void>() {
+            @Override
+            protected List<Tag> doInBackground() {
+                return tagRepository.search(query, SEARCH_LIMIT);
+            }
+
+            @Override
+            protected void done() {
+                if (!query.equals(searchField.getText())) {
+                    return;
+                }
+                try {
+                    get().stream()
+                            .filter(tag -> tagTree.findTag(tag).isPresent())
+                            .findFirst()
+                            .ifPresent(tagTree::selectTag);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    log.error("Error searching tags for '{}'", query, e.getCause());
+                }
+            }
+        }.execute();
     }
 
     private static Container createTagInfoPanel(TagTree tagTree) {
@@ -219,8 +283,8 @@ public class TagEntryUI {
 //               """.formatted(header, description);
 //    }
 
-    private static TagTree createTagTree(TagRepository tagRepository) {
-        return new TagTree(tagRepository.getGroupedFamilies());
+    private static TagTree createTagTree(TagRepository tagRepository, FileFormat fileFormat) {
+        return new TagTree(tagRepository.getGroupedFamilies(fileFormat));
     }
 
     private static JPanel createTagEntryPanel(SimpleForm<?> form, Container actionBar) {
@@ -64,7 +64,10 @@ class TagTree extends JTree {
 
     void selectTag(Tag tag) {
         getModel().findSelectionPath(tag)
-                .ifPresent(this::setSelectionPath);
+                .ifPresent(path -> {
+                    setSelectionPath(path);
+                    scrollPathToVisible(path);
+                });
     }
 
     void addTagSelectionListener(TagSelectionListener listener) {
@@ -20,13 +20,16 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.swing.SwingWorker;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static com.quaxantis.support.util.MoreCollectors.uniqueKeysMerger;
 import static java.util.function.Function.identity;
+import static java.util.function.Predicate.not;
 import static java.util.stream.Collectors.collectingAndThen;
 import static java.util.stream.Collectors.toMap;
 
@@ -36,6 +39,7 @@ public class TemplateForm extends AbstractForm<TemplateValues, TemplateForm> {
     private final Template template;
     private final ExpressionEvaluator expressionEvaluator;
     private final TemplateMapper mapper;
+    private final TemplateMapper.AnalysisSession analysisSession;
     private final SequencedMap<Variable, FormField<TemplateValues, TemplateValues.Entry>> fields;
 
     // CONSTRUCTOR
@@ -49,6 +53,7 @@ public class TemplateForm extends AbstractForm<TemplateValues, TemplateForm> {
 
         this.expressionEvaluator = template.expressionEvaluator();
         this.mapper = new TemplateMapper(template);
+        this.analysisSession = mapper.newAnalysisSession();
 
         // this::evaluateExpression requires this.expressionEvaluator to be set
         this.fields = initFields(template, this::evaluateExpression);
@@ -161,11 +166,38 @@ public class TemplateForm extends AbstractForm<TemplateValues, TemplateForm> {
     }
 
     // ANALYZE
+
+    // Analyzes in the background, as the deinterpolations can take up to their budget and more.
+    // The session is not thread-safe, so analyses run one after another.
+    // Only the variables that are still empty when the analysis is done are filled in.
     public void analyzeUnspecifiedVariables() {
         TemplateValues values = getData();
-        this.mapper.analyzeUnspecifiedVariables(values)
-                .forEach((variable, entry) -> values.set(template.variableByName(variable).orElseThrow(), entry));
-        setData(values);
+        new SwingWorker<Map<String, TemplateValues.Entry>, Void>() {
+            @Override
+            protected Map<String, TemplateValues.Entry> doInBackground() {
+                synchronized (analysisSession) {
+                    return analysisSession.analyzeUnspecifiedVariables(values);
+                }
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    TemplateValues currentValues = getData();
+                    get().forEach((name, entry) -> {
+                        Variable variable = template.variableByName(name).orElseThrow();
+                        if (currentValues.getValue(variable).filter(not(String::isEmpty)).isEmpty()) {
+                            currentValues.set(variable, entry);
+                        }
+                    });
+                    setData(currentValues);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    log.error("Error while analyzing unspecified variables in template {}", template, e.getCause());
+                }
+            }
+        }.execute();
     }
 
     // TRY
@@ -1,5 +1,6 @@
 package com.quaxantis.etui.swing.template;
 
+import com.quaxantis.etui.FileFormat;
 import com.quaxantis.etui.Tag;
 import com.quaxantis.etui.TagSet;
 import com.quaxantis.etui.Template;
@@ -32,7 +33,7 @@ public class TemplateUI {
         var configuration = configOperations.getConfiguration();
         var repo = new TemplateRepository(configuration, new TagRepository(configuration));
 
-        TemplateUI templateUI = new TemplateUI(repo, configOperations, "Dump", tagSetSupplier -> _ -> System.out.println(tagSetSupplier.get()));
+        TemplateUI templateUI = new TemplateUI(repo, FileFormat.UNKNOWN, configOperations, "Dump", tagSetSupplier -> _ -> System.out.println(tagSetSupplier.get()));
         QuickJFrame.of(templateUI.getUIContainer())
                 .withTitle("Template UI")
                 .show();
@@ -41,10 +42,10 @@ public class TemplateUI {
     private final Container uiContainer;
     private final TemplatePanel templatePanel;
 
-    public TemplateUI(TemplateRepository repository, ConfigOperations configOperations, String action, Function<Supplier<TagSet>, ActionListener> actionListener) {
+    public TemplateUI(TemplateRepository repository, FileFormat fileFormat, ConfigOperations configOperations, String action, Function<Supplier<TagSet>, ActionListener> actionListener) {
         var actionButton = new JButton(action);
         this.templatePanel = new TemplatePanel(actionButton);
-        this.uiContainer = composeUI(repository, configOperations, templatePanel, actionButton, actionListener.apply(this::getTags));
+        this.uiContainer = composeUI(repository, fileFormat, configOperations, templatePanel, actionButton, actionListener.apply(this::getTags));
     }
 
     public Container getUIContainer() {
@@ -59,9 +60,9 @@ public class TemplateUI {
         templatePanel.setTags(tags);
     }
 
-    private static Container composeUI(TemplateRepository templateRepository, ConfigOperations configOperations, TemplatePanel templatePanel, JButton actionButton, ActionListener actionlistener) {
+    private static Container composeUI(TemplateRepository templateRepository, FileFormat fileFormat, ConfigOperations configOperations, TemplatePanel templatePanel, JButton actionButton, ActionListener actionlistener) {
         var tagInfoPanel = createTagInfoPanel(templatePanel);
-        var templateSelector = createTemplateTree(templateRepository, templatePanel, tagInfoPanel, configOperations);
+        var templateSelector = createTemplateTree(templateRepository, fileFormat, templatePanel, tagInfoPanel, configOperations);
         var actionBar = createActionBar(templatePanel, actionButton, actionlistener);
         var templateScrollPane = new JScrollPane(templatePanel);
         templateScrollPane.getVerticalScrollBar().setUnitIncrement(64);
@@ -129,8 +130,8 @@ public class TemplateUI {
         return tagInfoPanel;
     }
 
-    private static Container createTemplateTree(TemplateRepository repository, TemplatePanel templatePanel, TagInfoPanel tagInfoPanel, ConfigOperations configOperations) {
-        var templateGroups = repository.templateGroups();
+    private static Container createTemplateTree(TemplateRepository repository, FileFormat fileFormat, TemplatePanel templatePanel, TagInfoPanel tagInfoPanel, ConfigOperations configOperations) {
+        var templateGroups = repository.templateGroups(fileFormat);
         var templateTree = new TemplateTree(templateGroups);
         var panel = new JPanel(new BorderLayout());
         panel.setBorder(BorderFactory.createEtchedBorder());
@@ -1,28 +1,42 @@
 package com.quaxantis.etui.tag;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.quaxantis.etui.FileFormat;
+import com.quaxantis.etui.FileFormatIndex;
 import com.quaxantis.etui.Tag;
 import com.quaxantis.etui.TagDescriptor;
 import com.quaxantis.etui.TagFamily;
+import com.quaxantis.etui.TagValue;
 import com.quaxantis.etui.application.config.ConfigOperations;
 import com.quaxantis.etui.application.config.Configuration;
 import com.quaxantis.etui.tag.xml.XMLTagCollection;
+import com.quaxantis.etui.tag.xml.XMLTagCollectionReader;
 import com.quaxantis.support.util.StreamEntry;
+import com.quaxantis.support.util.StringPool;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.InstantSource;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.SequencedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -40,6 +54,11 @@ public class TagRepository {
             "formats.xml",
             "system.xml"
     );
+    private static final FileTime MISSING = FileTime.fromMillis(0);
+    static final Duration CHECK_INTERVAL = Duration.ofSeconds(5);
+
+    // Values like camera models, software and copyright notices repeat across files
+    private static final StringPool VALUES = new StringPool(8192, 256);
 
     private final Logger log = LoggerFactory.getLogger(TagRepository.class);
 
@@ -49,7 +68,7 @@ public class TagRepository {
         this.configuration = configuration;
     }
 
-    private final ObjectMapper objectMapper = XmlMapper.builder().build();
+    private final XMLTagCollectionReader collectionReader = new XMLTagCollectionReader();
 
     public Tag enrichTag(@Nonnull Tag tag) {
         return findTag(tag)
@@ -57,6 +76,21 @@ public class TagRepository {
                 .orElse(tag);
     }
 
+    /**
+     * Returns the tag with the given group and name, enriched with its definition if known.
+     * The cached repository returns the same instance for the same group and name.
+     */
+    public Tag tag(@Nullable String groupName, @Nonnull String tagName) {
+        return enrichTag(Tag.of(groupName, tagName));
+    }
+
+    /**
+     * Returns a tag value with the {@linkplain #tag(String, String) tag} and a pooled value string.
+     */
+    public TagValue tagValue(@Nullable String groupName, @Nonnull String tagName, String value) {
+        return TagValue.of(tag(groupName, tagName), VALUES.intern(value));
+    }
+
     public Optional<Tag> findTagByQualifiedName(String qualifiedName) {
         return findTag(Tag.ofQualifiedName(qualifiedName));
     }
@@ -87,28 +121,71 @@ public class TagRepository {
 
     public List<? extends TagFamily> getFamilies() {
         try (var collections = readCollections()) {
-            return collections
-                    .map(StreamEntry::value)
-                    .map(XMLTagCollection::families)
-                    .flatMap(List::stream)
-                    .toList();
+            return familiesOf(collections);
         }
     }
 
-    // TODO: filter by file format
+    private static List<? extends TagFamily> familiesOf(Stream<StreamEntry<String, XMLTagCollection>> collections) {
+        return collections
+                .map(StreamEntry::value)
+                .map(XMLTagCollection::families)
+                .flatMap(List::stream)
+                .toList();
+    }
+
     public SequencedMap<String, List<TagFamily>> getGroupedFamilies() {
+        return groupFamilies(familyIndex().all());
+    }
+
+    public SequencedMap<String, List<TagFamily>> getGroupedFamilies(FileFormat fileFormat) {
+        return groupFamilies(familyIndex().applicableTo(fileFormat));
+    }
+
+    private static SequencedMap<String, List<TagFamily>> groupFamilies(List<StreamEntry<String, TagFamily>> families) {
+        return families.stream()
+                .collect(groupingBy(StreamEntry::getKey, LinkedHashMap::new, mapping(StreamEntry::getValue, toList())));
+    }
+
+    protected FileFormatIndex<StreamEntry<String, TagFamily>> familyIndex() {
         try (var collections = readCollections()) {
-            return collections
-                    .map(StreamEntry.mapping(XMLTagCollection::families))
-                    .flatMap(StreamEntry.flatMapping(List::stream))
-                    .collect(groupingBy(StreamEntry::getKey, LinkedHashMap::new, mapping(StreamEntry::getValue, toList())));
+            return indexFamilies(collections);
         }
+    }
 
+    private static FileFormatIndex<StreamEntry<String, TagFamily>> indexFamilies(Stream<StreamEntry<String, XMLTagCollection>> collections) {
+        List<StreamEntry<String, TagFamily>> families = collections
+                .map(StreamEntry.mapping(XMLTagCollection::families))
+                .flatMap(StreamEntry.flatMapping(List::stream))
+                .map(entry -> new StreamEntry<String, TagFamily>(entry.key(), entry.value()))
+                .toList();
+        return FileFormatIndex.of(families, entry -> entry.value().fileTypes());
+    }
 
+    /**
+     * Searches tags by (prefixes of) the words in their name, label and description, best matches first.
+     */
+    public List<Tag> search(@Nonnull String query, int limit) {
+        return searchIndex().search(query, limit);
+    }
+
+    protected TagSearchIndex searchIndex() {
+        return indexTags(getFamilies());
+    }
+
+    private static TagSearchIndex indexTags(List<? extends TagFamily> families) {
+        return TagSearchIndex.of(families.stream().flatMap(family -> family.tags().stream()).toList());
     }
 
     protected Stream<StreamEntry<String, XMLTagCollection>> readCollections() {
-        return Stream.concat(configuredCollections(), standardCollections());
+        return readCollections(tagDefinitions());
+    }
+
+    protected Stream<StreamEntry<String, XMLTagCollection>> readCollections(List<Path> tagDefinitions) {
+        return Stream.concat(configuredCollections(tagDefinitions), standardCollections());
+    }
+
+    protected List<Path> tagDefinitions() {
+        return List.copyOf(configuration.getTagDefinitions());
     }
 
     private Stream<StreamEntry<String, XMLTagCollection>> standardCollections() {
@@ -141,8 +218,8 @@ public class TagRepository {
         }
     }
 
-    private Stream<StreamEntry<String, XMLTagCollection>> configuredCollections() {
-        return configuration.getTagDefinitions().stream()
+    private Stream<StreamEntry<String, XMLTagCollection>> configuredCollections(List<Path> tagDefinitions) {
+        return tagDefinitions.stream()
                 .filter(Files::exists)
                 .flatMap(this::walk)
                 .filter(not(Files::isDirectory))
@@ -152,9 +229,31 @@ public class TagRepository {
                         (path, coll) -> (coll.collection() != null) ? coll.collection() : path.getFileName().toString()));
     }
 
+    // The modification time of a directory changes when files are added or removed
+    private Map<Path, FileTime> sourcesOf(List<Path> tagDefinitions) {
+        Map<Path, FileTime> sources = new HashMap<>();
+        for (Path path : tagDefinitions) {
+            sources.put(path, lastModifiedTime(path));
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> files = walk(path)) {
+                    files.forEach(file -> sources.put(file, lastModifiedTime(file)));
+                }
+            }
+        }
+        return Map.copyOf(sources);
+    }
+
+    private static FileTime lastModifiedTime(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException _) {
+            return MISSING;
+        }
+    }
+
     private XMLTagCollection readCollection(URL url) {
         try {
-            return this.objectMapper.readValue(url, XMLTagCollection.class);
+            return this.collectionReader.read(url);
         } catch (IOException ioe) {
             throw new UncheckedIOException(ioe);
         }
@@ -163,32 +262,209 @@ public class TagRepository {
     private XMLTagCollection readCollection(Path path) {
         try {
             log.info("Importing tag definitions from {}", path);
-            return this.objectMapper.readValue(path.toFile(), XMLTagCollection.class);
+            return this.collectionReader.read(path);
         } catch (IOException ioe) {
             throw new UncheckedIOException("Exception reading " + path, ioe);
         }
     }
 
     public Cache cached() {
-        return new Cache(this.configuration);
+        return cached(InstantSource.system());
+    }
+
+    Cache cached(InstantSource clock) {
+        return new Cache(this.configuration, clock);
     }
 
     public class Cache extends TagRepository {
-        AtomicReference<List<StreamEntry<String, XMLTagCollection>>> collections = new AtomicReference<>();
+        private final Object lock = new Object();
+        private final InstantSource clock;
+        private volatile Snapshot snapshot = Snapshot.empty(0);
+        private volatile Instant nextCheck = Instant.MIN;
+        private CompletableFuture<Snapshot> loading;
 
-        private Cache(Configuration configuration) {
+        private Cache(Configuration configuration, InstantSource clock) {
             super(configuration);
+            this.clock = clock;
+        }
+
+        @Override
+        public Cache cached() {
+            return this;
         }
 
         @Override
         protected Stream<StreamEntry<String, XMLTagCollection>> readCollections() {
-            return this.collections.updateAndGet(cached -> (cached != null) ? cached : super.readCollections().toList()).stream();
+            return load().collections().stream();
+        }
+
+        @Override
+        protected FileFormatIndex<StreamEntry<String, TagFamily>> familyIndex() {
+            return load().familyIndex();
+        }
+
+        @Override
+        public Optional<Tag> findTag(Tag referenceTag) {
+            return Optional.ofNullable(load().tagIndex().get(TagKey.of(referenceTag.groupName(), referenceTag.tagName())));
+        }
+
+        @Override
+        public Tag tag(@Nullable String groupName, @Nonnull String tagName) {
+            return load().tags().computeIfAbsent(TagKey.of(groupName, tagName),
+                                                 _ -> super.tag(groupName, tagName));
+        }
+
+        /**
+         * Returns the version of the loaded tag collections, which changes whenever they are reloaded.
+         * Changes to the configured tag definitions are detected within {@link #CHECK_INTERVAL}.
+         */
+        public long version() {
+            return load().version();
+        }
+
+        // Built on first use only, as indexing loads the descriptions of all tags
+        @Override
+        protected TagSearchIndex searchIndex() {
+            Snapshot snapshot = load();
+            synchronized (snapshot.searchIndex()) {
+                TagSearchIndex searchIndex = snapshot.searchIndex().get();
+                if (searchIndex == null) {
+                    searchIndex = indexTags(familiesOf(snapshot.collections().stream()));
+                    snapshot.searchIndex().set(searchIndex);
+                }
+                return searchIndex;
+            }
+        }
+
+        // Concurrent callers wait for the same load. A load that was started before a clear() is not published.
+        private Snapshot load() {
+            Snapshot current = this.snapshot;
+            if (current.collections() != null && !isUpToDate(current)) {
+                synchronized (this.lock) {
+                    if (this.snapshot == current) {
+                        log.debug("Tag definitions were modified. Reloading.");
+                        this.snapshot = Snapshot.empty(current.version() + 1);
+                        this.loading = null;
+                    }
+                }
+            }
+            while (true) {
+                CompletableFuture<Snapshot> future;
+                long version;
+                boolean loader = false;
+                synchronized (this.lock) {
+                    if (this.snapshot.collections() != null) {
+                        return this.snapshot;
+                    }
+                    if (this.loading == null) {
+                        this.loading = new CompletableFuture<>();
+                        loader = true;
+                    }
+                    future = this.loading;
+                    version = this.snapshot.version();
+                }
+
+                if (loader) {
+                    try {
+                        // The sources are recorded before reading, so that changes while reading are detected on the next check
+                        List<Path> tagDefinitions = tagDefinitions();
+                        Map<Path, FileTime> sources = sourcesOf(tagDefinitions);
+                        List<StreamEntry<String, XMLTagCollection>> collections;
+                        try (var stream = super.readCollections(tagDefinitions)) {
+                            collections = stream.toList();
+                        }
+                        future.complete(new Snapshot(version, collections, indexFamilies(collections.stream()),
+                                                     indexTagsByKey(familiesOf(collections.stream())),
+                                                     new AtomicReference<>(), new ConcurrentHashMap<>(),
+                                                     tagDefinitions, sources));
+                    } catch (Throwable exc) {
+                        // Errors complete the load too, so that waiting callers do not block forever
+                        future.completeExceptionally(exc);
+                    }
+                }
+
+                Snapshot loaded;
+                try {
+                    loaded = future.join();
+                } catch (CompletionException exc) {
+                    synchronized (this.lock) {
+                        if (this.loading == future) {
+                            this.loading = null;
+                        }
+                    }
+                    switch (exc.getCause()) {
+                        case RuntimeException runtimeException -> throw runtimeException;
+                        case Error error -> throw error;
+                        case null, default -> throw exc;
+                    }
+                }
+
+                synchronized (this.lock) {
+                    if (this.snapshot.version() == loaded.version()) {
+                        if (this.loading == future) {
+                            this.snapshot = loaded;
+                            this.loading = null;
+                            this.nextCheck = this.clock.instant().plus(CHECK_INTERVAL);
+                        }
+                        return loaded;
+                    }
+                }
+                log.debug("Tag collections were cleared while loading. Reloading.");
+            }
+        }
+
+        // The tag definition files are checked at most once per interval, like the templates
+        private boolean isUpToDate(Snapshot current) {
+            Instant now = this.clock.instant();
+            if (now.isBefore(this.nextCheck)) {
+                return true;
+            }
+            this.nextCheck = now.plus(CHECK_INTERVAL);
+            return current.tagDefinitions().equals(tagDefinitions()) && current.isUnmodified();
         }
 
         public Cache clear() {
-            this.collections.set(null);
+            synchronized (this.lock) {
+                this.snapshot = Snapshot.empty(this.snapshot.version() + 1);
+                this.loading = null;
+            }
             return this;
         }
+
+        private static Map<TagKey, Tag> indexTagsByKey(List<? extends TagFamily> families) {
+            Map<TagKey, Tag> tagIndex = new HashMap<>();
+            families.stream()
+                    .flatMap(family -> family.tags().stream())
+                    .forEach(tag -> tagIndex.putIfAbsent(TagKey.of(tag.groupName(), tag.tagName()), tag));
+            return tagIndex;
+        }
+
+        private record Snapshot(long version,
+                                List<StreamEntry<String, XMLTagCollection>> collections,
+                                FileFormatIndex<StreamEntry<String, TagFamily>> familyIndex,
+                                Map<TagKey, Tag> tagIndex,
+                                AtomicReference<TagSearchIndex> searchIndex,
+                                Map<TagKey, Tag> tags,
+                                List<Path> tagDefinitions,
+                                Map<Path, FileTime> sources) {
+            private static Snapshot empty(long version) {
+                return new Snapshot(version, null, null, null, null, null, null, null);
+            }
+
+            private boolean isUnmodified() {
+                return this.sources.entrySet()
+                        .stream()
+                        .allMatch(source -> source.getValue().equals(lastModifiedTime(source.getKey())));
+            }
+        }
+
+        // Tags are looked up case-insensitively, like Tag.isSameTagAs
+        private record TagKey(String groupName, String tagName) {
+            private static TagKey of(@Nullable String groupName, String tagName) {
+                return new TagKey((groupName == null) ? null : groupName.toLowerCase(Locale.ROOT),
+                                  tagName.toLowerCase(Locale.ROOT));
+            }
+        }
     }
 
     public static void main(String[] args) {
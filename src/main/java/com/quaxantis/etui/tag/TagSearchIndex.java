@@ -0,0 +1,163 @@
+package com.quaxantis.etui.tag;
+
+import com.quaxantis.etui.HasDescription;
+import com.quaxantis.etui.HasLabel;
+import com.quaxantis.etui.Tag;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory full-text index over tag names, labels and descriptions.
+ * <p>
+ * All distinct terms are kept in a sorted array, so that the terms starting with a query word
+ * form a contiguous range that is located with a binary search.
+ * Each term refers to the tags containing it, weighted by the field it occurs in.
+ */
+final class TagSearchIndex {
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern CAMEL_CASE = Pattern.compile("(?<=\\p{Ll})(?=\\p{Lu})|(?<=\\p{Lu})(?=\\p{Lu}\\p{Ll})");
+    private static final Pattern MARKUP = Pattern.compile("<[^>]*>");
+
+    private static final float NAME_WEIGHT = 8;
+    private static final float LABEL_WEIGHT = 4;
+    private static final float GROUP_WEIGHT = 2;
+    private static final float DESCRIPTION_WEIGHT = 1;
+    // Weight factor of a term that only starts with the query word
+    private static final float PREFIX_FACTOR = 0.5f;
+
+    private final Tag[] tags;
+    private final String[] terms;
+    private final int[][] postingTags;
+    private final float[][] postingWeights;
+
+    private TagSearchIndex(Tag[] tags, String[] terms, int[][] postingTags, float[][] postingWeights) {
+        this.tags = tags;
+        this.terms = terms;
+        this.postingTags = postingTags;
+        this.postingWeights = postingWeights;
+    }
+
+    static TagSearchIndex of(@Nonnull Collection<? extends Tag> tags) {
+        Map<String, Tag> uniqueTags = new LinkedHashMap<>();
+        for (Tag tag : tags) {
+            uniqueTags.putIfAbsent(tag.qualifiedName().toLowerCase(Locale.ROOT), tag);
+        }
+
+        Tag[] tagArray = uniqueTags.values().toArray(Tag[]::new);
+        Map<String, Map<Integer, Float>> postings = new HashMap<>();
+        for (int i = 0; i < tagArray.length; i++) {
+            Tag tag = tagArray[i];
+            addTerm(postings, tag.tagName().toLowerCase(Locale.ROOT), i, NAME_WEIGHT);
+            addTerms(postings, CAMEL_CASE.matcher(tag.tagName()).replaceAll(" "), i, NAME_WEIGHT);
+            addTerms(postings, tag.groupName(), i, GROUP_WEIGHT);
+            addTerms(postings, HasLabel.labelOf(tag), i, LABEL_WEIGHT);
+            if (HasDescription.descriptionOf(tag) instanceof String description) {
+                addTerms(postings, MARKUP.matcher(description).replaceAll(" "), i, DESCRIPTION_WEIGHT);
+            }
+        }
+
+        String[] terms = postings.keySet().toArray(String[]::new);
+        Arrays.sort(terms);
+        int[][] postingTags = new int[terms.length][];
+        float[][] postingWeights = new float[terms.length][];
+        for (int t = 0; t < terms.length; t++) {
+            Map<Integer, Float> posting = postings.get(terms[t]);
+            postingTags[t] = new int[posting.size()];
+            postingWeights[t] = new float[posting.size()];
+            int p = 0;
+            for (Map.Entry<Integer, Float> entry : posting.entrySet()) {
+                postingTags[t][p] = entry.getKey();
+                postingWeights[t][p] = entry.getValue();
+                p++;
+            }
+        }
+
+        return new TagSearchIndex(tagArray, terms, postingTags, postingWeights);
+    }
+
+    private static void addTerms(Map<String, Map<Integer, Float>> postings, String text, int tag, float weight) {
+        if (text != null) {
+            for (String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+                addTerm(postings, word, tag, weight);
+            }
+        }
+    }
+
+    private static void addTerm(Map<String, Map<Integer, Float>> postings, String term, int tag, float weight) {
+        if (!term.isEmpty()) {
+            postings.computeIfAbsent(term, _ -> new HashMap<>()).merge(tag, weight, Math::max);
+        }
+    }
+
+    /**
+     * Returns the tags matching all words of the query, either completely or as a prefix, best matches first.
+     */
+    List<Tag> search(@Nonnull String query, int limit) {
+        String[] words = Arrays.stream(WORD_SEPARATOR.split(query.toLowerCase(Locale.ROOT)))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+        if (words.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        float[] scores = new float[this.tags.length];
+        int[] matchedWords = new int[this.tags.length];
+        float[] wordScores = new float[this.tags.length];
+        for (int w = 0; w < words.length; w++) {
+            Arrays.fill(wordScores, 0);
+            String word = words[w];
+            for (int t = lowerBound(word); t < this.terms.length && this.terms[t].startsWith(word); t++) {
+                float factor = (this.terms[t].length() == word.length()) ? 1 : PREFIX_FACTOR;
+                int[] tagIds = this.postingTags[t];
+                float[] weights = this.postingWeights[t];
+                for (int p = 0; p < tagIds.length; p++) {
+                    wordScores[tagIds[p]] = Math.max(wordScores[tagIds[p]], factor * weights[p]);
+                }
+            }
+            for (int i = 0; i < this.tags.length; i++) {
+                if (wordScores[i] > 0 && matchedWords[i] == w) {
+                    matchedWords[i]++;
+                    scores[i] += wordScores[i];
+                }
+            }
+        }
+
+        PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, (a, b) -> compare(scores, b, a));
+        for (int i = 0; i < this.tags.length; i++) {
+            if (matchedWords[i] == words.length) {
+                best.add(i);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+
+        List<Tag> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            result.add(this.tags[best.poll()]);
+        }
+        return result.reversed();
+    }
+
+    // Orders by descending score, then by qualified name
+    private int compare(float[] scores, int a, int b) {
+        int byScore = Float.compare(scores[b], scores[a]);
+        return (byScore != 0) ? byScore : Tag.COMPARATOR.compare(this.tags[a], this.tags[b]);
+    }
+
+    private int lowerBound(String prefix) {
+        int index = Arrays.binarySearch(this.terms, prefix);
+        return (index >= 0) ? index : -index - 1;
+    }
+}
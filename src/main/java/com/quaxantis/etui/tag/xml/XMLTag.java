@@ -1,14 +1,17 @@
 package com.quaxantis.etui.tag.xml;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.quaxantis.etui.Tag;
 import com.quaxantis.etui.TagDescriptor;
 
+import java.lang.ref.SoftReference;
 import java.util.List;
 import java.util.Optional;
 
+// Description and format are loaded on demand through the details source
+@JsonIgnoreProperties({"description", "format"})
 public final class XMLTag implements Tag, TagDescriptor {
     @JsonProperty("name")
     private String tagName;
@@ -17,11 +20,10 @@ public final class XMLTag implements Tag, TagDescriptor {
     @JsonProperty("readonly")
     private Boolean readOnly = null;
     private String label;
-    @JsonDeserialize(using = DescriptionDeserializer.class)
-    private String description;
-    private XMLTagFormat format;
     @JsonBackReference
     private XMLTagFamily family;
+    private XMLTagDetails.Source detailsSource = XMLTagDetails.Source.NONE;
+    private volatile SoftReference<XMLTagDetails> details = new SoftReference<>(null);
 
     @Override
     public String groupName() {
@@ -60,11 +62,7 @@ public final class XMLTag implements Tag, TagDescriptor {
     }
 
     public String description() {
-        return description;
-    }
-
-    public void setDescription(String description) {
-        this.description = description;
+        return details().description();
     }
 
     public void setLabel(String label) {
@@ -84,21 +82,32 @@ public final class XMLTag implements Tag, TagDescriptor {
     }
 
     public XMLTagFormat format() {
-        return format;
+        return details().format();
     }
 
-    public void setFormat(XMLTagFormat format) {
-        this.format = format;
+    void setDetailsSource(XMLTagDetails.Source detailsSource) {
+        this.detailsSource = detailsSource;
+        this.details = new SoftReference<>(null);
+    }
+
+    private XMLTagDetails details() {
+        XMLTagDetails cached = this.details.get();
+        if (cached == null) {
+            cached = this.detailsSource.load();
+            this.details = new SoftReference<>(cached);
+        }
+        return cached;
     }
 
     @Override
     public String formatDescription() {
-        return (this.format == null)? null : this.format.description();
+        XMLTagFormat format = format();
+        return (format == null)? null : format.description();
     }
 
     @Override
     public List<? extends Example> examples() {
-        return Optional.ofNullable(this.format)
+        return Optional.ofNullable(format())
                 .map(XMLTagFormat::examples)
                 .orElse(List.of());
     }
@@ -107,8 +116,7 @@ public final class XMLTag implements Tag, TagDescriptor {
     public String toString() {
         return "XMLTag[" +
                "[" + asString() + "] " +
-               "label=" + label + ", " +
-               "description=" + description +
+               "label=" + label +
                ']';
     }
 
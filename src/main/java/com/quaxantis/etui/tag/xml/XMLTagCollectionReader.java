@@ -0,0 +1,186 @@
+package com.quaxantis.etui.tag.xml;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlElementWrapper;
+import com.pivovarit.function.ThrowingSupplier;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reads tag collections in two phases.
+ * The collection structure (families, names, groups, labels and read-only flags) is read immediately,
+ * while descriptions, formats and examples of the tags are only read from the source when requested.
+ * To that end, the character offsets of each tag element in the source are indexed while reading the collection.
+ * The text of the source is kept in a soft reference shared by its tags,
+ * so loading the details of all tags reads the source only once.
+ * If the tag elements cannot be indexed, the details are read with the collection instead.
+ */
+public final class XMLTagCollectionReader {
+    private static final Logger log = LoggerFactory.getLogger(XMLTagCollectionReader.class);
+    // tag-collection > family > tags > tag
+    private static final int TAGS_DEPTH = 3;
+    private static final int TAG_DEPTH = 4;
+
+    private final XmlMapper mapper = XmlMapper.builder().build();
+
+    public XMLTagCollection read(URL url) throws IOException {
+        return read(() -> new InputStreamReader(url.openStream(), StandardCharsets.UTF_8), url);
+    }
+
+    public XMLTagCollection read(Path path) throws IOException {
+        return read(() -> Files.newBufferedReader(path, StandardCharsets.UTF_8), path);
+    }
+
+    private XMLTagCollection read(ThrowingSupplier<Reader, IOException> source, Object location) throws IOException {
+        XMLTagCollection collection;
+        try (Reader reader = source.get()) {
+            collection = this.mapper.readValue(reader, XMLTagCollection.class);
+        }
+
+        List<XMLTag> tags = (collection.families() == null) ? List.of() : collection.families().stream()
+                .flatMap(family -> family.tags().stream())
+                .toList();
+        int[] offsets = indexTags(source, location);
+
+        if (offsets.length != 2 * tags.size()) {
+            log.warn("Could not index tag details in {}: found {} tag elements for {} tags, reading them eagerly instead",
+                     location, offsets.length / 2, tags.size());
+            readDetailsEagerly(source, location, tags);
+            return collection;
+        }
+
+        SourceText text = new SourceText(source);
+        for (int i = 0; i < tags.size(); i++) {
+            int start = offsets[2 * i];
+            int end = offsets[2 * i + 1];
+            tags.get(i).setDetailsSource(() -> readDetails(text, location, start, end));
+        }
+        return collection;
+    }
+
+    private void readDetailsEagerly(ThrowingSupplier<Reader, IOException> source, Object location, List<XMLTag> tags) throws IOException {
+        DetailsCollection detailsCollection;
+        try (Reader reader = source.get()) {
+            detailsCollection = this.mapper.readValue(reader, DetailsCollection.class);
+        }
+        List<XMLTagDetails> details = (detailsCollection.families() == null) ? List.of() : detailsCollection.families().stream()
+                .flatMap(family -> (family.tags() == null) ? Stream.<XMLTagDetails>empty() : family.tags().stream())
+                .toList();
+        if (details.size() != tags.size()) {
+            throw new IOException("Found details for " + details.size() + " of " + tags.size() + " tags in " + location);
+        }
+
+        for (int i = 0; i < tags.size(); i++) {
+            XMLTagDetails tagDetails = details.get(i);
+            tags.get(i).setDetailsSource(() -> tagDetails);
+        }
+    }
+
+    // Returns the start and end offset of each tag element, in document order.
+    // Like the mapper, this matches the tags wrapper by name, but not the elements in it.
+    private int[] indexTags(ThrowingSupplier<Reader, IOException> source, Object location) throws IOException {
+        XMLInputFactory factory = this.mapper.getFactory().getXMLInputFactory();
+        int[] offsets = new int[64];
+        int count = 0;
+
+        try (Reader reader = source.get()) {
+            XMLStreamReader xml = factory.createXMLStreamReader(reader);
+            try {
+                int depth = 0;
+                boolean inTags = false;
+                boolean inTag = false;
+                while (xml.hasNext()) {
+                    int event = xml.next();
+                    if (inTag) {
+                        // The location of an event is where it starts, so the event following a tag marks its end
+                        offsets[count++] = xml.getLocation().getCharacterOffset();
+                        inTag = false;
+                    }
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        depth++;
+                        if (depth == TAGS_DEPTH) {
+                            inTags = "tags".equals(xml.getLocalName());
+                        } else if (depth == TAG_DEPTH && inTags) {
+                            if (count + 2 > offsets.length) {
+                                offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+                            }
+                            offsets[count++] = xml.getLocation().getCharacterOffset();
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        inTag = (depth == TAG_DEPTH && inTags);
+                        depth--;
+                    }
+                }
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Exception indexing " + location, e);
+        }
+
+        return Arrays.copyOf(offsets, count);
+    }
+
+    private XMLTagDetails readDetails(SourceText text, Object location, int start, int end) {
+        try {
+            return this.mapper.readValue(text.substring(start, end), XMLTagDetails.class);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Exception reading tag details from " + location, ioe);
+        }
+    }
+
+    // The text of a source, read again only if it was collected
+    private static final class SourceText {
+        private final ThrowingSupplier<Reader, IOException> source;
+        private SoftReference<String> text = new SoftReference<>(null);
+
+        private SourceText(ThrowingSupplier<Reader, IOException> source) {
+            this.source = source;
+        }
+
+        private synchronized String substring(int start, int end) throws IOException {
+            String cached = this.text.get();
+            if (cached == null) {
+                try (Reader reader = this.source.get()) {
+                    cached = IOUtils.toString(reader);
+                }
+                this.text = new SoftReference<>(cached);
+            }
+            if (end > cached.length()) {
+                throw new IOException("Unexpected end of source at offset " + cached.length());
+            }
+            return cached.substring(start, end);
+        }
+    }
+
+    // The same document as an XMLTagCollection, reading only the details of the tags
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record DetailsCollection(
+            @JsonProperty("family")
+            @JacksonXmlElementWrapper(useWrapping = false)
+            List<DetailsFamily> families
+    ) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record DetailsFamily(List<XMLTagDetails> tags) {}
+}
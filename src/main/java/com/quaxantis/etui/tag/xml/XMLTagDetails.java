@@ -0,0 +1,24 @@
+package com.quaxantis.etui.tag.xml;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+/**
+ * The part of a tag definition that is only needed when the tag is displayed in detail.
+ * It is deserialized separately from the tag itself, on demand.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+record XMLTagDetails(
+        @JsonDeserialize(using = DescriptionDeserializer.class)
+        String description,
+        XMLTagFormat format
+) {
+    static final XMLTagDetails EMPTY = new XMLTagDetails(null, null);
+
+    @FunctionalInterface
+    interface Source {
+        Source NONE = () -> EMPTY;
+
+        XMLTagDetails load();
+    }
+}
@@ -4,14 +4,17 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
 import com.quaxantis.etui.HasDescription;
 import com.quaxantis.etui.HasLabel;
 import com.quaxantis.etui.TagFamily;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @JsonIgnoreProperties({"homePage", "reference"})
 public final class XMLTagFamily implements TagFamily, HasLabel, HasDescription {
@@ -20,6 +23,7 @@ public final class XMLTagFamily implements TagFamily, HasLabel, HasDescription {
     private String label;
     @JsonProperty("readonly")
     private Boolean readonly;
+    private Set<String> fileTypes = Set.of();
 
     @JsonDeserialize(using = DescriptionDeserializer.class)
     private String description;
@@ -72,6 +76,11 @@ public final class XMLTagFamily implements TagFamily, HasLabel, HasDescription {
         this.tags = tags;
     }
 
+    @JacksonXmlProperty(isAttribute = true)
+    public void setFileTypes(String fileTypes) {
+        this.fileTypes = (StringUtils.isBlank(fileTypes)) ? Set.of() : Set.copyOf(Arrays.asList(StringUtils.split(fileTypes)));
+    }
+
     Boolean getReadonly() {
         return this.readonly;
     }
@@ -86,6 +95,11 @@ public final class XMLTagFamily implements TagFamily, HasLabel, HasDescription {
         return Boolean.TRUE.equals(this.readonly);
     }
 
+    @Override
+    public Set<String> fileTypes() {
+        return this.fileTypes;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == this) return true;
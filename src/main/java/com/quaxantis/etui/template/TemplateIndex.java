@@ -0,0 +1,82 @@
+package com.quaxantis.etui.template;
+
+import com.quaxantis.etui.Tag;
+import com.quaxantis.etui.Template.Variable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Lookups between the variables and tags of a template, computed once when the template is created.
+ * <p>
+ * Variables are matched by identity - not by name only -
+ * because a variable with a name does not necessarily represent the same thing
+ * as a variable with the same name in another template.
+ * Tags are matched like {@link Tag#isSameTagAs(Tag)}.
+ */
+public final class TemplateIndex {
+    private final Map<String, Variable> variablesByName;
+    private final Map<Variable, List<Tag>> tagsByVariable;
+    private final Map<TagKey, List<Variable>> variablesByTag;
+
+    private TemplateIndex(Map<String, Variable> variablesByName,
+                          Map<Variable, List<Tag>> tagsByVariable,
+                          Map<TagKey, List<Variable>> variablesByTag) {
+        this.variablesByName = variablesByName;
+        this.tagsByVariable = tagsByVariable;
+        this.variablesByTag = variablesByTag;
+    }
+
+    public static TemplateIndex of(Collection<? extends Variable> variables, Collection<? extends TagMapping> mappings) {
+        Map<String, Variable> variablesByName = new HashMap<>();
+        for (Variable variable : variables) {
+            variablesByName.putIfAbsent(variable.name(), variable);
+        }
+
+        Map<Variable, List<Tag>> tagsByVariable = new IdentityHashMap<>();
+        Map<TagKey, List<Variable>> variablesByTag = new HashMap<>();
+        for (TagMapping mapping : mappings) {
+            mapping.variable().ifPresent(variable -> {
+                tagsByVariable.computeIfAbsent(variable, _ -> new ArrayList<>()).addAll(mapping.tags());
+                for (Tag tag : mapping.tags()) {
+                    List<Variable> tagVariables = variablesByTag.computeIfAbsent(TagKey.of(tag), _ -> new ArrayList<>());
+                    if (tagVariables.stream().noneMatch(other -> other == variable)) {
+                        tagVariables.add(variable);
+                    }
+                }
+            });
+        }
+        tagsByVariable.replaceAll((_, tags) -> List.copyOf(tags));
+        variablesByTag.replaceAll((_, tagVariables) -> List.copyOf(tagVariables));
+
+        return new TemplateIndex(Map.copyOf(variablesByName), tagsByVariable, Map.copyOf(variablesByTag));
+    }
+
+    public Optional<Variable> variableByName(String name) {
+        return Optional.ofNullable(this.variablesByName.get(name));
+    }
+
+    public List<Tag> tags(Variable variable) {
+        return this.tagsByVariable.getOrDefault(variable, List.of());
+    }
+
+    public List<Variable> variables(Tag tag) {
+        return this.variablesByTag.getOrDefault(TagKey.of(tag), List.of());
+    }
+
+    /**
+     * Key that is equal for tags that are the {@linkplain Tag#isSameTagAs(Tag) same tag}.
+     */
+    public record TagKey(String groupName, String tagName) {
+        public static TagKey of(Tag tag) {
+            return new TagKey((tag.groupName() == null) ? null : tag.groupName().toLowerCase(Locale.ROOT),
+                              tag.tagName().toLowerCase(Locale.ROOT));
+        }
+    }
+}
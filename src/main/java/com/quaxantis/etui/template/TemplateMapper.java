@@ -6,22 +6,43 @@ import com.quaxantis.etui.Template;
 import com.quaxantis.etui.Template.Variable;
 import com.quaxantis.etui.TemplateValues;
 import com.quaxantis.etui.template.expression.Binding;
+import com.quaxantis.etui.template.expression.Budget;
 import com.quaxantis.etui.template.expression.ExpressionEvaluator;
+import com.quaxantis.etui.template.expression.ExpressionEvaluator.Deinterpolation;
 import com.quaxantis.support.util.StreamEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static java.util.function.Predicate.not;
-import static java.util.stream.Collectors.filtering;
 import static java.util.stream.Collectors.toMap;
 
 public class TemplateMapper {
+    // The user waits for the analysis, so a good-enough analysis is preferred over a slow one
+    static final Duration DEFAULT_ANALYSIS_BUDGET = Duration.ofMillis(100);
+    // The time deinterpolations get to respond to their exhausted budget before they are cancelled
+    private static final Duration CANCELLATION_GRACE = Duration.ofSeconds(1);
+
+    private final Logger log = LoggerFactory.getLogger(TemplateMapper.class);
     private final com.quaxantis.etui.Template template;
+    private final Duration analysisBudget;
 
     public TemplateMapper(Template template) {
+        this(template, DEFAULT_ANALYSIS_BUDGET);
+    }
+
+    /**
+     * @param analysisBudget the time given to the deinterpolations when analyzing unspecified variables,
+     *                       after which they return partial results, or are cancelled and ignored when they do not respond
+     */
+    TemplateMapper(Template template, Duration analysisBudget) {
         this.template = template;
+        this.analysisBudget = analysisBudget;
     }
 
     public TemplateValues newValues() {
@@ -29,6 +50,12 @@ public class TemplateMapper {
     }
 
     public TemplateValues fromTags(TagSet tagSet) {
+        // Looks up each tag of the template once in the tag set instead of scanning the tag set per tag
+        Map<TemplateIndex.TagKey, TagValue> tagValues = new HashMap<>();
+        for (TagValue tagValue : tagSet) {
+            tagValues.putIfAbsent(TemplateIndex.TagKey.of(tagValue.tag()), tagValue);
+        }
+
         var specifiedValues = template.variables()
                 .stream()
                 .map(StreamEntry::of)
@@ -36,8 +63,8 @@ public class TemplateMapper {
                 .map(StreamEntry.mapping(
                         (Variable variable) -> template.tags(variable)
                                 .stream()
-                                .map(tagSet::getTag)
-                                .flatMap(Optional::stream)
+                                .map(tag -> tagValues.get(TemplateIndex.TagKey.of(tag)))
+                                .filter(Objects::nonNull)
                                 .collect(TemplateValuesSupport.toTemplateValue())
                                 .orElse(null)))
                 .filter(StreamEntry::isNonNullValue)
@@ -47,37 +74,135 @@ public class TemplateMapper {
     }
 
     public Map<String, TemplateValues.Entry> analyzeUnspecifiedVariables(TemplateValues currentValues) {
-        var specifiedValues = new HashMap<String, TemplateValues.Entry>();
-        var unspecifiedVariables = new ArrayList<Variable>();
-
-        for (Variable variable : template.variables()) {
-            currentValues.get(variable)
-                    .filter(entry -> entry.value().map(s -> !s.isEmpty()).orElse(false))
-                    .ifPresentOrElse(entry -> specifiedValues.put(variable.name(), entry),
-                                     () -> unspecifiedVariables.add(variable));
+        return newAnalysisSession().analyzeUnspecifiedVariables(currentValues);
+    }
+
+    /**
+     * Starts a session for analyzing changing values of the template repeatedly.
+     */
+    public AnalysisSession newAnalysisSession() {
+        return new AnalysisSession();
+    }
+
+    /**
+     * Keeps the deinterpolation of each expression along with the values it was deinterpolated from,
+     * so that analyzing again only deinterpolates the expressions whose value or referenced variables changed.
+     * A session is meant to be used by a single form and is not thread-safe.
+     * Analyzing blocks until the deinterpolations finish or are cancelled, so it is best done off the event dispatch thread.
+     */
+    public final class AnalysisSession {
+        private final Map<String, Analyzed> analyzed = new HashMap<>();
+
+        private AnalysisSession() {
         }
 
-        return analyzeUnspecifiedVariables(unspecifiedVariables, specifiedValues);
+        public Map<String, TemplateValues.Entry> analyzeUnspecifiedVariables(TemplateValues currentValues) {
+            var boundVariables = new HashMap<String, String>();
+            var unspecifiedVariables = new ArrayList<Variable>();
+
+            for (Variable variable : template.variables()) {
+                currentValues.get(variable)
+                        .flatMap(TemplateValues.Entry::value)
+                        .filter(not(String::isEmpty))
+                        .ifPresentOrElse(value -> boundVariables.put(variable.name(), value),
+                                         () -> unspecifiedVariables.add(variable));
+            }
+
+            ExpressionEvaluator evaluator = template.expressionEvaluator();
+            List<DeinterpolationInput> inputs = template.variables()
+                    .stream()
+                    .filter(variable -> variable.hasExpression() && boundVariables.get(variable.name()) != null)
+                    .map(variable -> DeinterpolationInput.of(variable, boundVariables, evaluator))
+                    .toList();
+            analyzed.keySet().retainAll(inputs.stream().map(DeinterpolationInput::variable).toList());
+
+            List<DeinterpolationInput> outdated = inputs.stream()
+                    .filter(input -> !analyzed.containsKey(input.variable()) || !analyzed.get(input.variable()).isCompleteFor(input))
+                    .toList();
+            Budget budget = Budget.of(analysisBudget);
+            List<Optional<Deinterpolation>> deinterpolations = deinterpolateConcurrently(
+                    outdated.stream()
+                            .<Callable<Deinterpolation>>map(input -> () -> evaluator.deinterpolate(input.expression(), boundVariables, input.value(), budget))
+                            .toList());
+            for (int i = 0; i < outdated.size(); i++) {
+                DeinterpolationInput input = outdated.get(i);
+                deinterpolations.get(i).ifPresentOrElse(
+                        deinterpolation -> analyzed.put(input.variable(), new Analyzed(input, deinterpolation)),
+                        () -> analyzed.remove(input.variable()));
+            }
+            log.debug("Deinterpolated {} of {} expressions", outdated.size(), inputs.size());
+
+            // Merged in the order of the variables, as if they were deinterpolated one after another
+            List<Binding> bindings = inputs.stream()
+                    .map(input -> analyzed.get(input.variable()))
+                    .filter(Objects::nonNull)
+                    .flatMap(result -> result.deinterpolation().bindings().stream())
+                    .toList();
+
+            return unspecifiedVariables.stream()
+                    .map(variable -> Map.entry(variable.name(),
+                                               analyzeUnspecifiedVariable(variable, bindings)
+                                                       .orElseGet(() -> TemplateValues.Entry.of(""))))
+                    .collect(toMap(Map.Entry::getKey, Map.Entry::getValue));
+        }
     }
 
-    private Map<String, TemplateValues.Entry> analyzeUnspecifiedVariables(Collection<Variable> variables, Map<String, TemplateValues.Entry> specifiedVariables) {
-        Map<String, String> boundVariables = specifiedVariables.entrySet().stream()
-                .collect(filtering((Map.Entry<String, TemplateValues.Entry> entry) -> entry.getValue().value().isPresent(),
-                                   toMap(Map.Entry::getKey, entry -> entry.getValue().value().orElse(null))));
+    /**
+     * The values a deinterpolation depends on: all bound variables when the variables of the expression are unknown.
+     */
+    private record DeinterpolationInput(String variable, String expression, String value, Map<String, String> referencedValues) {
+        static DeinterpolationInput of(Variable variable, Map<String, String> boundVariables, ExpressionEvaluator evaluator) {
+            Map<String, String> referencedValues = evaluator.variablesOf(variable.expression())
+                    .map(referenced -> boundVariables.entrySet().stream()
+                            .filter(entry -> referenced.contains(entry.getKey()))
+                            .collect(toMap(Map.Entry::getKey, Map.Entry::getValue)))
+                    .orElse(boundVariables);
+            return new DeinterpolationInput(variable.name(), variable.expression(), boundVariables.get(variable.name()), Map.copyOf(referencedValues));
+        }
+    }
 
-        ExpressionEvaluator evaluator = this.template.expressionEvaluator();
-        Collection<Binding> bindings = this.template.variables()
-                .stream()
-                .filter(variable -> variable.hasExpression() && boundVariables.get(variable.name()) != null)
-                .map(variable -> evaluator.deinterpolate(variable.expression(), boundVariables, boundVariables.get(variable.name())))
-                .flatMap(Collection::stream)
-                .toList();
-
-        return variables.stream()
-                .map(variable -> Map.entry(variable.name(),
-                                           analyzeUnspecifiedVariable(variable, bindings)
-                                                   .orElseGet(() -> TemplateValues.Entry.of(""))))
-                .collect(toMap(Map.Entry::getKey, Map.Entry::getValue));
+    // Partial deinterpolations are done again, in case there is more time
+    private record Analyzed(DeinterpolationInput input, Deinterpolation deinterpolation) {
+        boolean isCompleteFor(DeinterpolationInput input) {
+            return this.input.equals(input) && !deinterpolation.partial();
+        }
+    }
+
+    // The deinterpolations are independent, so they run concurrently.
+    // Their results are in the order of the deinterpolations, and empty when they did not finish in time.
+    private List<Optional<Deinterpolation>> deinterpolateConcurrently(List<Callable<Deinterpolation>> deinterpolations) {
+        if (deinterpolations.isEmpty()) {
+            return List.of();
+        }
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Duration timeout = analysisBudget.plus(CANCELLATION_GRACE);
+            List<Future<Deinterpolation>> futures = executor.invokeAll(deinterpolations, timeout.toNanos(), TimeUnit.NANOSECONDS);
+            List<Optional<Deinterpolation>> results = new ArrayList<>();
+            for (Future<Deinterpolation> future : futures) {
+                results.add(switch (future.state()) {
+                    case SUCCESS -> {
+                        Deinterpolation deinterpolation = future.resultNow();
+                        if (deinterpolation.partial()) {
+                            log.debug("Using partial deinterpolation that ran out of its budget of {}", analysisBudget);
+                        }
+                        yield Optional.of(deinterpolation);
+                    }
+                    case FAILED -> throw (future.exceptionNow() instanceof RuntimeException rte) ? rte : new IllegalStateException(future.exceptionNow());
+                    case CANCELLED, RUNNING -> {
+                        log.warn("Ignoring deinterpolation that did not finish within {}", timeout);
+                        yield Optional.empty();
+                    }
+                });
+            }
+            return results;
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            return Collections.nCopies(deinterpolations.size(), Optional.empty());
+        } finally {
+            // Does not wait for cancelled deinterpolations that do not respond to interruption
+            executor.shutdownNow();
+        }
     }
 
     private Optional<TemplateValues.Entry> analyzeUnspecifiedVariable(Variable variable, Collection<Binding> bindings) {
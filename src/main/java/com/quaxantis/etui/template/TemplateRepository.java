@@ -2,6 +2,8 @@ package com.quaxantis.etui.template;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.quaxantis.etui.FileFormat;
+import com.quaxantis.etui.FileFormatIndex;
 import com.quaxantis.etui.Tag;
 import com.quaxantis.etui.TagDescriptor;
 import com.quaxantis.etui.Template;
@@ -12,6 +14,7 @@ import com.quaxantis.etui.tag.TagRepository;
 import com.quaxantis.etui.template.xml.ConfiguredTemplate;
 import com.quaxantis.etui.template.xml.XMLTemplateCollection;
 import com.quaxantis.support.util.GlobMatcher;
+import com.quaxantis.support.util.GlobWalker;
 import com.quaxantis.support.util.StreamEntry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,10 +24,18 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.InstantSource;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.stream.Collector;
 import java.util.stream.Stream;
@@ -33,22 +44,32 @@ import static java.util.function.Predicate.not;
 
 public class TemplateRepository {
 
+    private static final FileTime MISSING = FileTime.fromMillis(0);
+    static final Duration CHECK_INTERVAL = Duration.ofSeconds(5);
+
     private final Logger log = LoggerFactory.getLogger(TemplateRepository.class);
     private final ObjectMapper objectMapper = XmlMapper.builder().build();
     private final Configuration configuration;
     private final TagRepository.Cache tagRepository;
+    private final InstantSource clock;
 
     public TemplateRepository(Configuration configuration, TagRepository tagRepository) {
+        this(configuration, tagRepository, InstantSource.system());
+    }
+
+    TemplateRepository(Configuration configuration, TagRepository tagRepository, InstantSource clock) {
         this.configuration = configuration;
         this.tagRepository = tagRepository.cached();
+        this.clock = clock;
     }
 
+    private final Object lock = new Object();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile boolean invalidated = true;
+    private volatile Instant nextCheck = Instant.MIN;
+
     public List<Template> templates() {
-        try (var templates = Stream.concat(standardCollections(), configuredCollections())) {
-            return templates.<Template>map(StreamEntry::value).toList();
-        } finally {
-            this.tagRepository.clear();
-        }
+        return snapshot().templates();
     }
 
     private static void forAllTemplatesRecursive(TemplateGroup group, Consumer<Template> downStream) {
@@ -56,12 +77,79 @@ public class TemplateRepository {
         group.templates().forEach(downStream);
     }
 
-    // TODO: filter by file format
     public List<TemplateGroup> templateGroups() {
-        try (var templates = Stream.concat(standardCollections(), configuredCollections())) {
-            return templates.collect(TemplateGroupCollector.collector());
-        } finally {
-            this.tagRepository.clear();
+        return templateGroups(FileFormat.UNKNOWN);
+    }
+
+    public List<TemplateGroup> templateGroups(FileFormat fileFormat) {
+        return snapshot().templateIndex()
+                .applicableTo(fileFormat)
+                .stream()
+                .collect(TemplateGroupCollector.collector());
+    }
+
+    /**
+     * Returns the version of the loaded templates, which changes whenever the templates are reloaded.
+     */
+    public long version() {
+        return snapshot().version();
+    }
+
+    /**
+     * Discards the loaded templates, so they are reloaded on next access.
+     * Changes to the configured template files and tag definitions are detected without invalidating,
+     * within {@link #CHECK_INTERVAL}.
+     */
+    public void invalidate() {
+        this.invalidated = true;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = this.snapshot;
+        if (isUpToDate(current)) {
+            return current;
+        }
+        synchronized (this.lock) {
+            // Another thread may have reloaded in the meantime
+            if (this.snapshot == current) {
+                this.invalidated = false;
+                this.snapshot = loadSnapshot(current.version() + 1);
+                this.nextCheck = this.clock.instant().plus(CHECK_INTERVAL);
+            }
+            return this.snapshot;
+        }
+    }
+
+    // The template files and directories are checked at most once per interval, since they may be on a slow share
+    private boolean isUpToDate(Snapshot current) {
+        if (this.invalidated
+            || current.tagVersion() != this.tagRepository.version()
+            || !current.templatePaths().equals(this.configuration.getTemplatePaths())) {
+            return false;
+        }
+        Instant now = this.clock.instant();
+        if (now.isBefore(this.nextCheck)) {
+            return true;
+        }
+        this.nextCheck = now.plus(CHECK_INTERVAL);
+        return current.isUnmodified();
+    }
+
+    private Snapshot loadSnapshot(long version) {
+        List<String> templatePaths = List.copyOf(this.configuration.getTemplatePaths());
+        long tagVersion = this.tagRepository.version();
+        Map<Path, FileTime> sources = new HashMap<>();
+        try (var templates = Stream.concat(standardCollections(), configuredCollections(templatePaths, sources))) {
+            List<StreamEntry<String, Template>> entries = templates
+                    .map(entry -> new StreamEntry<String, Template>(entry.key(), entry.value()))
+                    .toList();
+            log.debug("Loaded {} templates (version {})", entries.size(), version);
+            return new Snapshot(version,
+                                entries.stream().map(StreamEntry::value).toList(),
+                                FileFormatIndex.of(entries, entry -> entry.value().fileTypes()),
+                                tagVersion,
+                                templatePaths,
+                                Map.copyOf(sources));
         }
     }
 
@@ -71,12 +159,12 @@ public class TemplateRepository {
                 .stream()
                 .map(StreamEntry::of)
                 .flatMap(StreamEntry.flatMapping(List::stream))
-                .map(StreamEntry.mapping(family -> ofTags(family.label(), "Tag Family " + family.label(), family.tags())))
+                .map(StreamEntry.mapping(family -> ofTags(family.label(), "Tag Family " + family.label(), family.fileTypes(), family.tags())))
                 .flatMap(StreamEntry.flatMapping(Optional::stream))
                 .map(StreamEntry.mappingKey(key -> "Tags / " + key));
     }
 
-    private Stream<StreamEntry<String, ConfiguredTemplate>> configuredCollections() {
+    private Stream<StreamEntry<String, ConfiguredTemplate>> configuredCollections(List<String> templatePaths, Map<Path, FileTime> sources) {
 //        var paths = configuration.getTemplatePaths();
 //        for (String path : paths) {
 //            GlobMatcher globMatcher = GlobMatcher.of(path);
@@ -86,12 +174,20 @@ public class TemplateRepository {
 //            }
 //        }
 
-        return configuration.getTemplatePaths()
-                .stream()
+        List<GlobMatcher> globMatchers = templatePaths.stream()
                 .map(pathPattern -> GlobMatcher.of(pathPattern, "**.xml"))
-                .filter(gm -> Files.exists(gm.path()))
-                .flatMap(GlobMatcher::walk)
-                .filter(not(Files::isDirectory))
+                .toList();
+        globMatchers.forEach(gm -> sources.put(gm.path(), lastModifiedTime(gm.path())));
+
+        // The modification time of a directory changes when files are added or removed.
+        // It is recorded before the directory is listed, so that files added while walking are detected on the next check.
+        Map<Path, FileTime> directories = new ConcurrentHashMap<>();
+        List<Path> files = GlobWalker.of(globMatchers)
+                .walk(directory -> directories.put(directory, lastModifiedTime(directory)));
+        sources.putAll(directories);
+        files.forEach(file -> sources.put(file, lastModifiedTime(file)));
+
+        return files.stream()
                 .map(StreamEntry::of)
                 .map(StreamEntry.mapping(this::readCollection))
                 .filter(StreamEntry::isNonNullValue)
@@ -106,6 +202,14 @@ public class TemplateRepository {
                 });
     }
 
+    private static FileTime lastModifiedTime(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException _) {
+            return MISSING;
+        }
+    }
+
     Stream<Path> walk(Path path) {
         try {
             return Files.walk(path);
@@ -114,10 +218,10 @@ public class TemplateRepository {
         }
     }
 
-    private static Optional<Template> ofTags(String name, String source, Collection<? extends Tag> tags) {
+    private static Optional<Template> ofTags(String name, String source, Set<String> fileTypes, Collection<? extends Tag> tags) {
         return tags.stream()
                 .filter(tag -> !TagDescriptor.of(tag).isReadOnly())
-                .collect(Collector.of(() -> TemplateSupport.builder(name).withSource(source),
+                .collect(Collector.of(() -> TemplateSupport.builder(name).withSource(source).withFileTypes(fileTypes),
                                       (builder, tag) -> builder.addVariable(new VariableSupport(tag), tag),
                                       (_, _) -> {
                                           throw new UnsupportedOperationException();
@@ -126,6 +230,22 @@ public class TemplateRepository {
                                               .filter(not(template -> template.variables().isEmpty()))));
     }
 
+    private record Snapshot(long version,
+                            List<Template> templates,
+                            FileFormatIndex<StreamEntry<String, Template>> templateIndex,
+                            long tagVersion,
+                            List<String> templatePaths,
+                            Map<Path, FileTime> sources) {
+        private static final Snapshot EMPTY =
+                new Snapshot(0, List.of(), FileFormatIndex.of(List.of(), _ -> Set.of()), 0, List.of(), Map.of());
+
+        private boolean isUnmodified() {
+            return this.sources.entrySet()
+                    .stream()
+                    .allMatch(source -> source.getValue().equals(lastModifiedTime(source.getKey())));
+        }
+    }
+
     @Nullable
     private XMLTemplateCollection readCollection(Path path) {
         try {
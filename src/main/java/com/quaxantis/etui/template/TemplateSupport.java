@@ -9,6 +9,8 @@ import com.quaxantis.etui.template.expression.ExpressionEvaluator;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 
 public class TemplateSupport implements Template {
@@ -16,13 +18,17 @@ public class TemplateSupport implements Template {
     private final String source;
     private final List<Variable> variables;
     private final List<TagMapping> mappings;
+    private final Set<String> fileTypes;
+    private final TemplateIndex index;
     private final ExpressionEvaluator expressionEvaluator;
 
-    private TemplateSupport(String name, String source, List<Variable> variables, List<TagMapping> mappings) {
+    private TemplateSupport(String name, String source, List<Variable> variables, List<TagMapping> mappings, Set<String> fileTypes) {
         this.name = name;
         this.source = source;
         this.variables = variables;
         this.mappings = mappings;
+        this.fileTypes = fileTypes;
+        this.index = TemplateIndex.of(variables, mappings);
         this.expressionEvaluator = ExpressionEvaluator.of(ExpressionEvaluator.Context.of(this.variables));
     }
 
@@ -38,11 +44,22 @@ public class TemplateSupport implements Template {
 
     @Override
     public Collection<Tag> tags(Variable variable) {
-        return mappings.stream()
-                .filter(mapping -> mapping.variable().map(variable::equals).orElse(false))
-                .map(TagMapping::tags)
-                .flatMap(List::stream)
-                .toList();
+        return this.index.tags(variable);
+    }
+
+    @Override
+    public List<Variable> variables(Tag tag) {
+        return this.index.variables(tag);
+    }
+
+    @Override
+    public Optional<Variable> variableByName(String name) {
+        return this.index.variableByName(name);
+    }
+
+    @Override
+    public Set<String> fileTypes() {
+        return this.fileTypes;
     }
 
     @Override
@@ -67,6 +84,7 @@ public class TemplateSupport implements Template {
         String source;
         List<Variable> variables = new ArrayList<>();
         List<TagMapping> mappings = new ArrayList<>();
+        Set<String> fileTypes = Set.of();
         Function<ExpressionEvaluator.Context, ExpressionEvaluator> evaluator = ExpressionEvaluator::of;
 
         public Builder(String name) {
@@ -79,6 +97,11 @@ public class TemplateSupport implements Template {
             return this;
         }
 
+        public Builder withFileTypes(Set<String> fileTypes) {
+            this.fileTypes = Set.copyOf(fileTypes);
+            return this;
+        }
+
         public Builder addVariable(Variable variable) {
             this.variables.add(variable);
             return this;
@@ -128,7 +151,7 @@ public class TemplateSupport implements Template {
 
         public Template build() {
             List<Variable> unmodifiableVariables = List.copyOf(this.variables);
-            return new TemplateSupport(this.name, this.source, unmodifiableVariables, this.mappings);
+            return new TemplateSupport(this.name, this.source, unmodifiableVariables, List.copyOf(this.mappings), this.fileTypes);
         }
     }
 
@@ -0,0 +1,39 @@
+package com.quaxantis.etui.template.expression;
+
+import java.time.Duration;
+
+/**
+ * The time allowed for a deinterpolation, checked cooperatively while analyzing.
+ * When the time is up, the analysis finishes with the cheapest strategy instead of the best one.
+ * When cancelled, or when the analyzing thread is interrupted, the analysis stops as soon as possible.
+ */
+public final class Budget {
+    private final long deadline;
+    private final boolean limited;
+    private volatile boolean cancelled;
+
+    private Budget(long deadline, boolean limited) {
+        this.deadline = deadline;
+        this.limited = limited;
+    }
+
+    public static Budget of(Duration duration) {
+        return new Budget(System.nanoTime() + duration.toNanos(), true);
+    }
+
+    public static Budget unlimited() {
+        return new Budget(0, false);
+    }
+
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled || Thread.currentThread().isInterrupted();
+    }
+
+    public boolean isExhausted() {
+        return isCancelled() || (limited && System.nanoTime() - deadline >= 0);
+    }
+}
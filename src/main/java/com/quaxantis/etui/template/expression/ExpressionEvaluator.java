@@ -4,12 +4,13 @@ import com.quaxantis.etui.Template;
 import com.quaxantis.etui.TemplateValues;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 public interface ExpressionEvaluator {
     String evaluate(String expression, TemplateValues values);
@@ -18,14 +19,32 @@ public interface ExpressionEvaluator {
         return Set.of();
     }
 
+    /**
+     * The names of the variables in the expression, or empty when unknown.
+     */
+    default Optional<Set<String>> variablesOf(String expression) {
+        return Optional.empty();
+    }
+
+    /**
+     * Deinterpolates within the budget, returning the bindings found so far when the budget runs out.
+     */
+    default Deinterpolation deinterpolate(String expression, Map<String, String> boundVariables, String evaluatedExpression, Budget budget) {
+        return new Deinterpolation(deinterpolate(expression, boundVariables, evaluatedExpression), false);
+    }
+
+    /**
+     * @param partial whether the budget ran out, so that better bindings may have been missed
+     */
+    record Deinterpolation(Collection<Binding> bindings, boolean partial) {}
+
     interface Context {
         Optional<Template.Variable> resolveVariable(String name);
 
         static Context of(Collection<? extends Template.Variable> vars) {
-            return name -> vars.stream()
-                    .filter(var -> var.name().equals(name))
-                    .findAny()
-                    .map(Function.identity());
+            Map<String, Template.Variable> variablesByName = new HashMap<>();
+            vars.forEach(var -> variablesByName.putIfAbsent(var.name(), var));
+            return name -> Optional.ofNullable(variablesByName.get(name));
         }
     }
 
@@ -34,6 +53,8 @@ public interface ExpressionEvaluator {
     }
 
     class SimpleNameEvaluator implements ExpressionEvaluator {
+        private static final Pattern VARIABLE = Pattern.compile("\\$\\{([a-zA-Z0-9_.-]+)}");
+
         private final Context context;
 
         private SimpleNameEvaluator(Context context) {
@@ -43,8 +64,7 @@ public interface ExpressionEvaluator {
         @Override
         public String evaluate(String expression, TemplateValues values) {
             StringBuilder builder = new StringBuilder();
-            Pattern pattern = Pattern.compile("\\$\\{([a-zA-Z0-9_.-]+)}");
-            Matcher matcher = pattern.matcher(expression);
+            Matcher matcher = VARIABLE.matcher(expression);
             while (matcher.find()) {
                 String value = this.context.resolveVariable(matcher.group(1))
                         .map(var -> values.getValue(var).orElse(""))
@@ -54,5 +74,10 @@ public interface ExpressionEvaluator {
             matcher.appendTail(builder);
             return builder.toString();
         }
+
+        @Override
+        public Optional<Set<String>> variablesOf(String expression) {
+            return Optional.of(VARIABLE.matcher(expression).results().map(result -> result.group(1)).collect(Collectors.toSet()));
+        }
     }
 }
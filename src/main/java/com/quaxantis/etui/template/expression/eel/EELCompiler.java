@@ -0,0 +1,182 @@
+package com.quaxantis.etui.template.expression.eel;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Compiles an {@link Expression} into a tree of closures, which evaluates like {@link EELExpressionResolver}
+ * without walking the expression records again.
+ * <p>
+ * Identifiers are numbered when compiling, and each identifier is resolved at most once per evaluation.
+ * Subexpressions without identifiers are evaluated when compiling.
+ * All parts write into a single {@link StringBuilder}.
+ */
+final class EELCompiler {
+    // Length returned by a node that evaluates to null, as opposed to an empty string
+    private static final int NULL = -1;
+
+    private final Map<String, Integer> slots = new LinkedHashMap<>();
+
+    private EELCompiler() {
+    }
+
+    static Compiled compile(Expression expression) {
+        EELCompiler compiler = new EELCompiler();
+        Node node = compiler.compileNode(expression);
+        return new Compiled(node, compiler.slots.keySet().toArray(String[]::new));
+    }
+
+    private Node compileNode(Expression expression) {
+        Node node = switch (expression) {
+            case Expression.Text(var text) -> text(text);
+            case Expression.Identifier(var identifier) -> identifier(this.slots.computeIfAbsent(identifier, _ -> this.slots.size()));
+            case Expression.Concat(var parts) -> concat(parts.stream().map(this::compileNode).toArray(Node[]::new));
+            case Expression.Elvis(var main, var orElse) -> elvis(compileNode(main), compileNode(orElse));
+            case Expression.OptPrefix(var prefix, var main) -> optPrefix(compileNode(prefix), compileNode(main));
+            case Expression.OptSuffix(var main, var suffix) -> optSuffix(compileNode(main), compileNode(suffix));
+            case Expression.Delegate(var delegate) -> compileNode(delegate);
+        };
+        return (node instanceof Constant || !isConstant(expression)) ? node : constant(node);
+    }
+
+    private static boolean isConstant(Expression expression) {
+        return switch (expression) {
+            case Expression.Text _ -> true;
+            case Expression.Identifier _ -> false;
+            case Expression.Concat(var parts) -> parts.stream().allMatch(EELCompiler::isConstant);
+            case Expression.Elvis(var main, var orElse) -> isConstant(main) && isConstant(orElse);
+            case Expression.OptPrefix(var prefix, var main) -> isConstant(prefix) && isConstant(main);
+            case Expression.OptSuffix(var main, var suffix) -> isConstant(main) && isConstant(suffix);
+            case Expression.Delegate(var delegate) -> isConstant(delegate);
+        };
+    }
+
+    private static Node constant(Node node) {
+        StringBuilder builder = new StringBuilder();
+        int length = node.appendTo(builder, null);
+        return text((length == NULL) ? null : builder.toString());
+    }
+
+    private static Node text(String text) {
+        return new Constant(text);
+    }
+
+    private static Node identifier(int slot) {
+        return (out, values) -> {
+            String value = values.get(slot);
+            if (value == null) {
+                return NULL;
+            }
+            out.append(value);
+            return value.length();
+        };
+    }
+
+    private static Node concat(Node[] parts) {
+        return (out, values) -> {
+            int length = 0;
+            for (Node part : parts) {
+                length += Math.max(0, part.appendTo(out, values));
+            }
+            return length;
+        };
+    }
+
+    private static Node elvis(Node main, Node orElse) {
+        return (out, values) -> {
+            int length = main.appendTo(out, values);
+            return (length > 0) ? length : orElse.appendTo(out, values);
+        };
+    }
+
+    private static Node optSuffix(Node main, Node suffix) {
+        return (out, values) -> {
+            int length = main.appendTo(out, values);
+            return (length > 0) ? length + Math.max(0, suffix.appendTo(out, values)) : length;
+        };
+    }
+
+    private static Node optPrefix(Node prefix, Node main) {
+        return (out, values) -> {
+            int start = out.length();
+            int length = main.appendTo(out, values);
+            if (length <= 0) {
+                return length;
+            }
+            // The prefix is only evaluated for a non-empty main value, so it is inserted in front of it
+            String mainValue = out.substring(start);
+            out.setLength(start);
+            int prefixLength = Math.max(0, prefix.appendTo(out, values));
+            out.append(mainValue);
+            return prefixLength + length;
+        };
+    }
+
+    @FunctionalInterface
+    private interface Node {
+        // Appends the value and returns its length, or NULL if the value is null
+        int appendTo(StringBuilder out, Values values);
+    }
+
+    private record Constant(String text) implements Node {
+        @Override
+        public int appendTo(StringBuilder out, Values values) {
+            if (this.text == null) {
+                return NULL;
+            }
+            out.append(this.text);
+            return this.text.length();
+        }
+    }
+
+    // Values of the identifiers, resolved on first use
+    private static final class Values {
+        private final String[] identifiers;
+        private final Function<String, String> identifierResolver;
+        private final String[] values;
+        private final boolean[] resolved;
+
+        private Values(String[] identifiers, Function<String, String> identifierResolver) {
+            this.identifiers = identifiers;
+            this.identifierResolver = identifierResolver;
+            this.values = new String[identifiers.length];
+            this.resolved = new boolean[identifiers.length];
+        }
+
+        private String get(int slot) {
+            if (!this.resolved[slot]) {
+                this.values[slot] = this.identifierResolver.apply(this.identifiers[slot]);
+                this.resolved[slot] = true;
+            }
+            return this.values[slot];
+        }
+    }
+
+    static final class Compiled {
+        private final Node node;
+        private final String[] identifiers;
+
+        private Compiled(Node node, String[] identifiers) {
+            this.node = node;
+            this.identifiers = identifiers;
+        }
+
+        List<String> identifiers() {
+            return List.of(this.identifiers);
+        }
+
+        String evaluate(Function<String, String> identifierResolver) {
+            StringBuilder out = new StringBuilder();
+            return (appendTo(out, identifierResolver) == NULL) ? null : out.toString();
+        }
+
+        /**
+         * Appends the value of the expression and returns its length, or -1 if the expression evaluates to null.
+         */
+        int appendTo(StringBuilder out, Function<String, String> identifierResolver) {
+            return this.node.appendTo(out, new Values(this.identifiers, identifierResolver));
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.quaxantis.etui.template.expression.eel;
 
 import com.quaxantis.etui.template.expression.Binding;
+import com.quaxantis.etui.template.expression.Budget;
+import com.quaxantis.etui.template.expression.ExpressionEvaluator.Deinterpolation;
 import com.quaxantis.etui.template.expression.matching.IntRange;
 import com.quaxantis.etui.template.expression.matching.Match;
 import com.quaxantis.etui.template.expression.matching.Match.NoMatch;
@@ -9,55 +11,118 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import static com.quaxantis.etui.template.expression.matching.Constraint.*;
-import static java.util.function.Predicate.not;
 
 class EELExpressionAnalyzer {
 
     private static final Logger log = LoggerFactory.getLogger(EELExpressionAnalyzer.class);
 
-    private static final List<Predicate<Match>> FILTERS = List.of(
-            not((Match match) -> match instanceof NoMatch).and(match -> match.score() >= 0.4),
-            not((Match match) -> match instanceof NoMatch).and(match -> match.score() >= 0.2),
-            not((Match match) -> match instanceof NoMatch).and(match -> match.score() >= 0.1)
-    );
+    static final int DEFAULT_BEAM_WIDTH = 64;
+    static final double DEFAULT_MINIMUM_SCORE = 0.1;
+    // Matches of the whole expression reaching the highest of these scores are preferred over the matches with lower scores
+    private static final double[] PREFERRED_SCORES = {0.4, 0.2};
+
+    private final int beamWidth;
+    private final double minimumScore;
+
+    EELExpressionAnalyzer() {
+        this(DEFAULT_BEAM_WIDTH, DEFAULT_MINIMUM_SCORE);
+    }
+
+    /**
+     * @param beamWidth    the maximum number of matches kept for each subexpression
+     * @param minimumScore the score below which matches are discarded
+     */
+    EELExpressionAnalyzer(int beamWidth, double minimumScore) {
+        if (beamWidth < 1) {
+            throw new IllegalArgumentException("Beam width must be positive but was " + beamWidth);
+        }
+        this.beamWidth = beamWidth;
+        this.minimumScore = minimumScore;
+    }
 
     public Stream<Binding> findBindings(Expression expression, String string, Map<String, String> bindings) {
         return match(expression, string, bindings).flatMap(Match::bindings);
     }
 
+    /**
+     * Finds the bindings within the budget.
+     * Once the budget is exhausted, the analysis continues with the single best match of each subexpression,
+     * and once it is cancelled, the analysis stops. In both cases the result is partial.
+     */
+    public Deinterpolation findBindings(Expression expression, String string, Map<String, String> bindings, Budget budget) {
+        Analysis analysis = new Analysis(beamWidth, minimumScore, budget, LiteralIndex.of(expression, string));
+        List<Binding> found = match(expression, string, bindings, analysis).<Binding>flatMap(Match::bindings).toList();
+        return new Deinterpolation(found, analysis.isPartial());
+    }
+
     Stream<Match> match(Expression expression, String string, Map<String, String> bindings) {
-        var fullExpr = new Expression.Delegate(expression);
-        Collection<Match> matches = doMatch(fullExpr, string, Match.withGivenBindings(fullExpr, string, bindings));
-        return matches.stream();
+        return match(expression, string, bindings, new Analysis(beamWidth, minimumScore, Budget.unlimited(), LiteralIndex.of(expression, string)));
     }
 
-    private Collection<Match> doMatch(Expression.Delegate fullExpr, String string, Match rootMatch) {
-        Collection<Match> matches = List.of();
+    private Stream<Match> match(Expression expression, String string, Map<String, String> bindings, Analysis analysis) {
+        Match rootMatch = Match.withGivenBindings(expression, string, bindings);
+        Collection<Match> matches = doMatch(expression, string, rootMatch, analysis);
+        return preferred(matches).stream();
+    }
 
-        // Try again with lesser strict filter if no results are found
-        for (int i = 0; matches.isEmpty() && i < FILTERS.size(); i++) {
-            matches = doMatch(fullExpr, string, rootMatch, FILTERS.get(i));
+    // The preference only applies to the matches of the whole expression, not to the matches of its subexpressions,
+    // which are only held to the minimum score. As the score of a match can rise when it is constrained further,
+    // a match can be preferred although some of its submatches scored below the preferred score.
+    // Earlier, all matches were held to the preferred score, and the lower scores were only tried when nothing matched.
+    private Collection<Match> preferred(Collection<Match> matches) {
+        for (double preferredScore : PREFERRED_SCORES) {
+            if (preferredScore > minimumScore) {
+                List<Match> preferred = matches.stream().filter(match -> match.score() >= preferredScore).toList();
+                if (!preferred.isEmpty()) {
+                    return preferred;
+                }
+            }
         }
-
         return matches;
     }
 
-    Collection<Match> doMatch(Expression expression, String string, Match parent, Predicate<Match> matchFilter) {
+    Collection<Match> doMatch(Expression expression, String string, Match parent, Analysis analysis) {
+        MatchKey key = new MatchKey(expression, parent);
+        Collection<Match> memoized = analysis.matches.get(key);
+        if (memoized != null) {
+            return memoized;
+        }
+        if (analysis.isCancelled()) {
+            return List.of();
+        }
+
+        if (!analysis.isPossible(expression, string)) {
+            analysis.matches.put(key, List.of());
+            return List.of();
+        }
+
         Collection<Match> result = switch (expression) {
-            case Expression.Text text -> matchText(text, string, parent);
+            case Expression.Text text -> matchText(text, string, parent, IntRange.of(0, string.length()), analysis);
             case Expression.Identifier identifier -> matchIdentifier(identifier, string, parent);
-            case Expression.Elvis elvis -> matchElvis(elvis, string, parent, matchFilter);
-            case Expression.OptPrefix optPrefix -> matchOptPrefix(optPrefix, string, parent, matchFilter);
-            case Expression.OptSuffix optSuffix -> matchOptSuffix(optSuffix, string, parent, matchFilter);
-            case Expression.Concat concat -> matchConcat(concat, string, parent, matchFilter);
-            case Expression.Delegate(var delegate) -> doMatch(delegate, string, parent, matchFilter);
+            case Expression.Elvis elvis -> matchElvis(elvis, string, parent, analysis);
+            case Expression.OptPrefix optPrefix -> matchOptPrefix(optPrefix, string, parent, analysis);
+            case Expression.OptSuffix optSuffix -> matchOptSuffix(optSuffix, string, parent, analysis);
+            case Expression.Concat concat -> matchConcat(concat, string, parent, analysis);
+            case Expression.Delegate(var delegate) -> doMatch(delegate, string, parent, analysis);
         };
 
-        return result.stream().filter(matchFilter).toList();
+        List<Match> selected = analysis.select(result);
+        analysis.matches.put(key, selected);
+        return selected;
+    }
+
+    // Given bindings only affect the matches of the variables they bind:
+    // parents with the same given bindings for the identifiers of an expression are shared,
+    // so that matching the expression is memoized across the alternatives of the bound match.
+    private Match givenBindings(Match parent, Expression causeExpression, Expression expression, Match boundMatch, Analysis analysis) {
+        Set<String> identifiers = analysis.profile(expression).identifiers();
+        var valueRanges = Match.valueRanges(boundMatch.bindings().toList(), identifiers::contains);
+        return analysis.givenParents.computeIfAbsent(
+                new GivenKey(parent, causeExpression, valueRanges),
+                _ -> parent.addingGivenBindings(causeExpression, valueRanges));
     }
 
     private Collection<Match> matchIdentifier(Expression.Identifier identifier, String fullString, Match parent) {
@@ -67,16 +132,17 @@ class EELExpressionAnalyzer {
         return List.of(parent.constrain(toRange(flex).and(toMinLength(0)), identifier).binding(identifier, variable));
     }
 
-    private Collection<Match> matchText(Expression.Text textExpr, String fullString, Match parent) {
+    private Collection<Match> matchText(Expression.Text textExpr, String fullString, Match parent, IntRange window, Analysis analysis) {
         Objects.requireNonNull(textExpr);
         Objects.requireNonNull(fullString);
         String text = textExpr.literal();
 
-        return matchLiteral(text, textExpr, fullString, parent).toList();
+        return matchLiteral(text, textExpr, fullString, parent, window, analysis.literals).toList();
     }
 
-    private static Stream<Match> matchLiteral(String literal, Expression expression, String fullString, Match parent) {
-        if (fullString.equals(literal)) {
+    // Only matches the literal within the window, at the positions found when indexing the literals of the expression
+    private static Stream<Match> matchLiteral(String literal, Expression expression, String fullString, Match parent, IntRange window, LiteralIndex literals) {
+        if (fullString.equals(literal) && window.from() == 0 && window.exclusiveTo() == fullString.length()) {
             int end = fullString.length() - 1;
             RangeFlex matchRange = RangeFlex.ofFixed(0, end);
             int matchLength = end + 1;
@@ -85,8 +151,10 @@ class EELExpressionAnalyzer {
             return Stream.of(parent.constrain(toMaxLength(0), expression));
         } else {
             List<Match> matches = new ArrayList<>();
-            int index = -1;
-            while (index < fullString.length() && (index = fullString.indexOf(literal, ++index)) >= 0) {
+            int[] positions = literals.positions(literal);
+            int first = Arrays.binarySearch(positions, window.from());
+            for (int i = (first >= 0) ? first : -first - 1; i < positions.length && positions[i] + literal.length() <= window.exclusiveTo(); i++) {
+                int index = positions[i];
                 int end = index + literal.length() - 1;
                 RangeFlex matchRange = RangeFlex.ofFixed(index, end);
                 int matchLength = end - index + 1;
@@ -109,47 +177,47 @@ class EELExpressionAnalyzer {
                         .and(toMaxLength(matchLength)), expression);
     }
 
-    private List<Match> matchElvis(Expression.Elvis elvis, String string, Match parent, Predicate<Match> matchFilter) {
-        Collection<Match> leftMatches = doMatch(elvis.expression(), string, parent, matchFilter);
-        return leftMatches.stream().flatMap(leftMatch -> elvisMatch(elvis, string, leftMatch, parent, matchFilter)).toList();
+    private List<Match> matchElvis(Expression.Elvis elvis, String string, Match parent, Analysis analysis) {
+        Collection<Match> leftMatches = doMatch(elvis.expression(), string, parent, analysis);
+        return leftMatches.stream().flatMap(leftMatch -> elvisMatch(elvis, string, leftMatch, parent, analysis)).toList();
     }
 
-    private Stream<Match> elvisMatch(Expression.Elvis elvis, String string, Match leftMatch, Match parent, Predicate<Match> matchFilter) {
+    private Stream<Match> elvisMatch(Expression.Elvis elvis, String string, Match leftMatch, Match parent, Analysis analysis) {
         Match mainMatch = leftMatch.constrain(toMinLength(1), elvis);
         Match emptyMainMatch = leftMatch.constrain(toMaxLength(0), elvis);
         if (emptyMainMatch instanceof NoMatch) {
             return Stream.of(mainMatch);
         } else {
-            Collection<Match> fallbackMatches = doMatch(elvis.orElse(), string, parent.bindingAll(elvis, emptyMainMatch.bindings().toList()), matchFilter);
+            Collection<Match> fallbackMatches = doMatch(elvis.orElse(), string, givenBindings(parent, elvis, elvis.orElse(), emptyMainMatch, analysis), analysis);
             return Stream.concat(Stream.of(mainMatch),
                                  fallbackMatches.stream().map(fallbackMatch -> emptyMainMatch.concatenate(fallbackMatch, elvis, string)));
         }
     }
 
-    private List<Match> matchOptPrefix(Expression.OptPrefix optPrefix, String string, Match parent, Predicate<Match> matchFilter) {
-        Collection<Match> exprMatches = doMatch(optPrefix.expression(), string, parent, matchFilter);
-        return exprMatches.stream().flatMap(exprMatch -> optPrefixMatch(optPrefix, string, exprMatch, parent, matchFilter)).toList();
+    private List<Match> matchOptPrefix(Expression.OptPrefix optPrefix, String string, Match parent, Analysis analysis) {
+        Collection<Match> exprMatches = doMatch(optPrefix.expression(), string, parent, analysis);
+        return exprMatches.stream().flatMap(exprMatch -> optPrefixMatch(optPrefix, string, exprMatch, parent, analysis)).toList();
     }
 
-    private List<Match> matchOptSuffix(Expression.OptSuffix optSuffix, String string, Match parent, Predicate<Match> matchFilter) {
-        Collection<Match> exprMatches = doMatch(optSuffix.expression(), string, parent, matchFilter);
-        return exprMatches.stream().flatMap(exprMatch -> optSuffixMatch(optSuffix, string, exprMatch, parent, matchFilter)).toList();
+    private List<Match> matchOptSuffix(Expression.OptSuffix optSuffix, String string, Match parent, Analysis analysis) {
+        Collection<Match> exprMatches = doMatch(optSuffix.expression(), string, parent, analysis);
+        return exprMatches.stream().flatMap(exprMatch -> optSuffixMatch(optSuffix, string, exprMatch, parent, analysis)).toList();
     }
 
-    private Stream<Match> optPrefixMatch(Expression.OptPrefix optPrefix, String string, Match exprMatch, Match parent, Predicate<Match> matchFilter) {
+    private Stream<Match> optPrefixMatch(Expression.OptPrefix optPrefix, String string, Match exprMatch, Match parent, Analysis analysis) {
         if (exprMatch instanceof NoMatch) {
             return Stream.of(Match.noMatch(optPrefix, string, exprMatch));
         }
 
         Match mainMatch = exprMatch.constrain(toMinLength(1), optPrefix);
         Match emptyMainMatch = exprMatch.constrain(toMaxLength(0), optPrefix);
-        Collection<Match> prefixMatches = doMatch(optPrefix.prefix(), string, parent.bindingAll(optPrefix, mainMatch.bindings().toList()), matchFilter);
+        Collection<Match> prefixMatches = doMatch(optPrefix.prefix(), string, givenBindings(parent, optPrefix, optPrefix.prefix(), mainMatch, analysis), analysis);
         return Stream.concat(
                 prefixMatches.stream().map(prefixMatch -> prefixMatch.concatenate(mainMatch, optPrefix, string)),
                 Stream.of(emptyMainMatch));
     }
 
-    private Stream<Match> optSuffixMatch(Expression.OptSuffix optSuffix, String string, Match exprMatch, Match parent, Predicate<Match> matchFilter) {
+    private Stream<Match> optSuffixMatch(Expression.OptSuffix optSuffix, String string, Match exprMatch, Match parent, Analysis analysis) {
 
         if (exprMatch instanceof NoMatch) {
             return Stream.of(Match.noMatch(optSuffix, string, exprMatch));
@@ -157,34 +225,217 @@ class EELExpressionAnalyzer {
 
         Match mainMatch = exprMatch.constrain(toMinLength(1), optSuffix);
         Match emptymainMatch = exprMatch.constrain(toMaxLength(0), optSuffix);
-        Collection<Match> suffixMatches = doMatch(optSuffix.suffix(), string, parent.bindingAll(optSuffix, mainMatch.bindings().toList()), matchFilter);
+        Collection<Match> suffixMatches = doMatch(optSuffix.suffix(), string, givenBindings(parent, optSuffix, optSuffix.suffix(), mainMatch, analysis), analysis);
         return Stream.concat(
                 suffixMatches.stream().map(suffixMatch -> mainMatch.concatenate(suffixMatch, optSuffix, string)),
                 Stream.of(emptymainMatch));
     }
 
-    private Collection<Match> matchConcat(Expression.Concat concat, String string, Match parent, Predicate<Match> matchFilter) {
-        Iterator<Expression> iter = concat.parts().iterator();
+    private Collection<Match> matchConcat(Expression.Concat concat, String string, Match parent, Analysis analysis) {
+        List<Expression> parts = concat.parts();
 
-        if (!iter.hasNext()) {
+        if (parts.isEmpty()) {
             return List.of(parent.constrain(toRange(RangeFlex.empty()).and(toMaxLength(0)), concat));
         }
 
-        Expression part = iter.next();
-        Collection<Match> results = doMatch(part, string, parent, matchFilter);
-
-        while (iter.hasNext()) {
-            Expression nextPart = iter.next();
-            Collection<Match> nextMatches = doMatch(nextPart, string, parent, matchFilter);
-            part = new Expression.Concat(part, nextPart);
-            final var expression = part;
-            results = results.stream().flatMap(match -> concatMatch(expression, string, match, nextMatches)).toList();
+        // The parts before and after a literal need room for their minimum lengths,
+        // which limits where the literal can be placed
+        int before = 0;
+        int after = analysis.profile(concat).minLength();
+
+        List<Expression> combinedParts = analysis.combinedParts(concat);
+        Collection<Match> results = null;
+        for (int i = 0; i < parts.size(); i++) {
+            Expression nextPart = parts.get(i);
+            int minLength = analysis.profile(nextPart).minLength();
+            after -= minLength;
+            Collection<Match> nextMatches = (nextPart instanceof Expression.Text text)
+                    ? analysis.select(matchText(text, string, parent, IntRange.of(before, string.length() - after), analysis))
+                    : doMatch(nextPart, string, parent, analysis);
+            before += minLength;
+
+            results = (i == 0) ? nextMatches : concatMatches(combinedParts.get(i), string, results, nextMatches, analysis);
+
+            if (results.isEmpty()) {
+                // Nothing left to concatenate the remaining parts to
+                return List.of();
+            }
         }
 
         return results;
     }
 
-    private Stream<Match> concatMatch(Expression expression, String string, Match match, Collection<Match> nextMatches) {
-        return nextMatches.stream().map(nextMatch -> match.concatenate(nextMatch, expression, string));
+    // Concatenates the pairs of matches best-first, estimating each concatenation by the product of the scores of its parts.
+    // The estimate is not a bound, as the parts are constrained again when concatenated, which can change their scores.
+    // The bound is the product of the highest scores the parts can reach. Until the beam is filled with concatenations
+    // reaching the minimum score, pairs are skipped when their bound is below the minimum score. Once it is filled,
+    // pairs are skipped when their bound cannot beat the k-th best score in the beam, and the loop stops when no
+    // remaining pair can. Failed concatenations are dropped right away, as they cannot be concatenated into a match.
+    private List<Match> concatMatches(Expression expression, String string, Collection<Match> leftMatches, Collection<Match> rightMatches, Analysis analysis) {
+        List<Match> lefts = List.copyOf(leftMatches);
+        List<Match> rights = List.copyOf(rightMatches);
+        double[] leftScores = lefts.stream().mapToDouble(Match::score).toArray();
+        double[] rightScores = rights.stream().mapToDouble(Match::score).toArray();
+        double[] leftMaxScores = lefts.stream().mapToDouble(Match::maxScore).toArray();
+        double[] rightMaxScores = rights.stream().mapToDouble(Match::maxScore).toArray();
+
+        int pairs = lefts.size() * rights.size();
+        Integer[] order = new Integer[pairs];
+        double[] estimates = new double[pairs];
+        double[] maxScores = new double[pairs];
+        for (int pair = 0; pair < pairs; pair++) {
+            order[pair] = pair;
+            estimates[pair] = leftScores[pair / rights.size()] * rightScores[pair % rights.size()];
+            maxScores[pair] = leftMaxScores[pair / rights.size()] * rightMaxScores[pair % rights.size()];
+        }
+        Arrays.sort(order, Comparator.comparingDouble((Integer pair) -> estimates[pair]).reversed());
+        // The highest score that any of the pairs from each position in the order on can reach
+        double[] remainingMaxScores = new double[pairs + 1];
+        Arrays.fill(remainingMaxScores, Double.NEGATIVE_INFINITY);
+        for (int i = pairs - 1; i >= 0; i--) {
+            remainingMaxScores[i] = Math.max(remainingMaxScores[i + 1], maxScores[order[i]]);
+        }
+
+        SortedMap<Integer, Match> concatenated = new TreeMap<>();
+        Beam beam = new Beam(analysis.concatenationWidth(), analysis.minimumScore);
+        for (int i = 0; i < pairs && beam.canBeBeatenBy(remainingMaxScores[i]); i++) {
+            int pair = order[i];
+            if (!beam.canBeBeatenBy(maxScores[pair])) {
+                continue;
+            }
+            Match match = lefts.get(pair / rights.size()).concatenate(rights.get(pair % rights.size()), expression, string);
+            if (!(match instanceof NoMatch)) {
+                concatenated.put(pair, match);
+                beam.add(match.score());
+            }
+        }
+        return List.copyOf(concatenated.values());
     }
+
+    // The best scores reaching the minimum score, up to the width of the beam
+    private static final class Beam {
+        private final int width;
+        private final double minimumScore;
+        private final PriorityQueue<Double> scores = new PriorityQueue<>();
+
+        private Beam(int width, double minimumScore) {
+            this.width = width;
+            this.minimumScore = minimumScore;
+        }
+
+        private void add(double score) {
+            if (score >= minimumScore) {
+                scores.add(score);
+                if (scores.size() > width) {
+                    scores.remove();
+                }
+            }
+        }
+
+        private boolean canBeBeatenBy(double maxScore) {
+            return (scores.size() < width) ? maxScore >= minimumScore : maxScore > scores.element();
+        }
+    }
+
+    static final class Analysis {
+        private final int beamWidth;
+        private final double minimumScore;
+        private final Budget budget;
+        private final LiteralIndex literals;
+        private boolean partial;
+        private final Map<MatchKey, Collection<Match>> matches = new HashMap<>();
+        private final Map<GivenKey, Match> givenParents = new HashMap<>();
+        private final Map<Expression, ExpressionProfile> profiles = new IdentityHashMap<>();
+        private final Map<Expression, Boolean> possible = new IdentityHashMap<>();
+        private final Map<Expression.Concat, List<Expression>> combinedParts = new IdentityHashMap<>();
+
+        Analysis(int beamWidth, double minimumScore, Budget budget, LiteralIndex literals) {
+            this.beamWidth = beamWidth;
+            this.minimumScore = minimumScore;
+            this.budget = budget;
+            this.literals = literals;
+        }
+
+        // Once the budget is exhausted, only the best concatenation of the matches of the parts is kept.
+        // The matches of the parts themselves are not narrowed, as they are found regardless of their position.
+        private int concatenationWidth() {
+            if (!partial && budget.isExhausted()) {
+                log.debug("Analysis budget exhausted, continuing with the best matches only");
+                partial = true;
+            }
+            return partial ? 1 : beamWidth;
+        }
+
+        private boolean isCancelled() {
+            if (budget.isCancelled()) {
+                partial = true;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean isPartial() {
+            return partial;
+        }
+
+        // Keeps the best matches reaching the minimum score, in their original order
+        private List<Match> select(Collection<Match> candidates) {
+            List<Match> matches = new ArrayList<>(candidates.size());
+            List<Double> scores = new ArrayList<>(candidates.size());
+            for (Match candidate : candidates) {
+                if (!(candidate instanceof NoMatch)) {
+                    double score = candidate.score();
+                    if (score >= minimumScore) {
+                        matches.add(candidate);
+                        scores.add(score);
+                    }
+                }
+            }
+            if (matches.size() <= beamWidth) {
+                return List.copyOf(matches);
+            }
+
+            Integer[] order = new Integer[matches.size()];
+            Arrays.setAll(order, i -> i);
+            Arrays.sort(order, Comparator.comparingDouble((Integer i) -> scores.get(i)).reversed());
+            Integer[] best = Arrays.copyOf(order, beamWidth);
+            Arrays.sort(best);
+            return Arrays.stream(best).map(matches::get).toList();
+        }
+
+        // The expressions of the first parts of a concatenation, combined one part at a time while matching
+        private List<Expression> combinedParts(Expression.Concat concat) {
+            return combinedParts.computeIfAbsent(concat, _ -> {
+                List<Expression> combined = new ArrayList<>(concat.parts().size());
+                for (Expression part : concat.parts()) {
+                    combined.add(combined.isEmpty() ? part : new Expression.Concat(combined.getLast(), part));
+                }
+                return combined;
+            });
+        }
+
+        private ExpressionProfile profile(Expression expression) {
+            return ExpressionProfile.of(expression, profiles);
+        }
+
+        private boolean isPossible(Expression expression, String string) {
+            return possible.computeIfAbsent(expression, _ -> profile(expression).isPossibleIn(string.length(), literals::contains));
+        }
+    }
+
+    // Keys on the identity of the expression and the parent match
+    private record MatchKey(Expression expression, Match parent) {
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof MatchKey(var otherExpression, var otherParent)
+                   && expression == otherExpression && parent == otherParent;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(expression) + System.identityHashCode(parent);
+        }
+    }
+
+    private record GivenKey(Match parent, Expression causeExpression, List<Map.Entry<String, RangeFlex.Applied>> valueRanges) {}
 }
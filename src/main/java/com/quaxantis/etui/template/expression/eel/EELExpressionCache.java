@@ -0,0 +1,66 @@
+package com.quaxantis.etui.template.expression.eel;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of values derived from expressions, evicting the least recently used entry when full.
+ * The cached values are immutable, so they can be shared between evaluators and threads.
+ */
+final class EELExpressionCache<K, T> {
+    private final int capacity;
+    private final Map<K, T> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    EELExpressionCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, T> eldest) {
+                return size() > EELExpressionCache.this.capacity;
+            }
+        };
+    }
+
+    T get(K key, Function<? super K, ? extends T> loader) {
+        return getIfPresent(key).orElseGet(() -> {
+            // Load outside the lock: a concurrent load of the same key yields an equal result
+            T loaded = loader.apply(key);
+            put(key, loaded);
+            return loaded;
+        });
+    }
+
+    Optional<T> getIfPresent(K key) {
+        T value;
+        synchronized (this.entries) {
+            value = this.entries.get(key);
+        }
+        (value != null ? hits : misses).increment();
+        return Optional.ofNullable(value);
+    }
+
+    void put(K key, T value) {
+        synchronized (this.entries) {
+            this.entries.putIfAbsent(key, value);
+        }
+    }
+
+    int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+}
@@ -2,14 +2,24 @@ package com.quaxantis.etui.template.expression.eel;
 
 import com.quaxantis.etui.TemplateValues;
 import com.quaxantis.etui.template.expression.Binding;
+import com.quaxantis.etui.template.expression.Budget;
 import com.quaxantis.etui.template.expression.ExpressionEvaluator;
 import com.quaxantis.etui.template.expression.parser.SimpleParser;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public class EELExpressionEvaluator implements ExpressionEvaluator {
+    // Template expressions do not change, so parsing them again on every evaluation is wasted
+    private static final EELExpressionCache<String, Parsed> CACHE = new EELExpressionCache<>(4096);
+    // The same values are deinterpolated again when switching templates or files, or when analyzing again
+    private static final EELExpressionCache<DeinterpolationKey, List<Binding>> DEINTERPOLATIONS = new EELExpressionCache<>(1024);
+
     private final Context context;
     private final SimpleParser<Expression> parser = parser();
     private final EELExpressionAnalyzer analyzer = new EELExpressionAnalyzer();
@@ -20,15 +30,57 @@ public class EELExpressionEvaluator implements ExpressionEvaluator {
 
     @Override
     public String evaluate(String expression, TemplateValues values) {
-        EELExpressionResolver resolver = new EELExpressionResolver(
-                varName -> resolveVariable(values, varName).orElse(null));
-        return resolver.resolve(parser.parse(expression));
+        return parse(expression).compiled()
+                .evaluate(varName -> resolveVariable(values, varName).orElse(null));
+    }
+
+    @Override
+    public Optional<Set<String>> variablesOf(String expression) {
+        return Optional.of(parse(expression).identifiers());
     }
 
     @Override
     public Collection<Binding> deinterpolate(String expression, Map<String, String> boundVariables, String evaluatedExpression) {
-        Expression expr = parser.parse(expression);
-        return analyzer.findBindings(expr, evaluatedExpression, boundVariables).toList();
+        Parsed parsed = parse(expression);
+        return DEINTERPOLATIONS.get(DeinterpolationKey.of(expression, parsed, boundVariables, evaluatedExpression),
+                                    key -> deinterpolateByRegex(parsed, key)
+                                            .orElseGet(() -> analyzer.findBindings(parsed.expression(), key.evaluatedExpression(), key.boundVariables()).toList()));
+    }
+
+    @Override
+    public Deinterpolation deinterpolate(String expression, Map<String, String> boundVariables, String evaluatedExpression, Budget budget) {
+        Parsed parsed = parse(expression);
+        DeinterpolationKey key = DeinterpolationKey.of(expression, parsed, boundVariables, evaluatedExpression);
+        return DEINTERPOLATIONS.getIfPresent(key)
+                .map(bindings -> new Deinterpolation(bindings, false))
+                .or(() -> deinterpolateByRegex(parsed, key).map(bindings -> {
+                    DEINTERPOLATIONS.put(key, bindings);
+                    return new Deinterpolation(bindings, false);
+                }))
+                .orElseGet(() -> {
+                    Deinterpolation deinterpolation = analyzer.findBindings(parsed.expression(), evaluatedExpression, key.boundVariables(), budget);
+                    // Partial results are not cached, so that they are completed when there is more time
+                    if (!deinterpolation.partial()) {
+                        DEINTERPOLATIONS.put(key, List.copyOf(deinterpolation.bindings()));
+                    }
+                    return deinterpolation;
+                });
+    }
+
+    // The analyzer only keeps the score of an exact match for values equal to the given ones.
+    // When a captured value differs from or omits its given value, the analyzer scores the alternatives instead.
+    private static Optional<List<Binding>> deinterpolateByRegex(Parsed parsed, DeinterpolationKey key) {
+        return parsed.regex()
+                .flatMap(regex -> regex.deinterpolate(key.evaluatedExpression()))
+                .filter(binding -> key.boundVariables()
+                        .entrySet()
+                        .stream()
+                        .allMatch(given -> binding.valueOf(given.getKey()).filter(given.getValue()::equals).isPresent()))
+                .map(List::of);
+    }
+
+    private Parsed parse(String expression) {
+        return CACHE.get(expression, expr -> Parsed.of(ExpressionNormalizer.normalize(parser.parse(expr))));
     }
 
     private Optional<String> resolveVariable(TemplateValues values, String varName) {
@@ -37,6 +89,27 @@ public class EELExpressionEvaluator implements ExpressionEvaluator {
         return values.getValue(variable);
     }
 
+    private record Parsed(Expression expression, EELCompiler.Compiled compiled, Set<String> identifiers, Optional<RegexDeinterpolator> regex) {
+        static Parsed of(Expression expression) {
+            return new Parsed(expression, EELCompiler.compile(expression), ExpressionProfile.of(expression, new IdentityHashMap<>()).identifiers(),
+                              RegexDeinterpolator.of(expression));
+        }
+    }
+
+    // Only the bound variables occurring in the expression affect its bindings, so the others are left out of the key
+    private record DeinterpolationKey(String expression, Map<String, String> boundVariables, String evaluatedExpression) {
+        private static DeinterpolationKey of(String expression, Parsed parsed, Map<String, String> boundVariables, String evaluatedExpression) {
+            Map<String, String> relevant = new HashMap<>();
+            for (String identifier : parsed.identifiers()) {
+                String value = boundVariables.get(identifier);
+                if (value != null) {
+                    relevant.put(identifier, value);
+                }
+            }
+            return new DeinterpolationKey(expression, Map.copyOf(relevant), evaluatedExpression);
+        }
+    }
+
     static SimpleParser<Expression> parser() {
         return new SimpleParser<>(new EELLanguage());
     }
@@ -8,6 +8,13 @@ import java.util.stream.Collectors;
 
 import static java.util.function.Predicate.not;
 
+/**
+ * Evaluates an {@link Expression} by walking its records, following the definition of each expression directly.
+ * <p>
+ * Expressions are evaluated with {@link EELCompiler}. This resolver is kept as the reference the tests check against:
+ * the compiled expressions, the normalized expressions and the bindings found by {@link EELExpressionAnalyzer}
+ * must evaluate to the same value as the resolver gives.
+ */
 class EELExpressionResolver {
     private final Function<String, String> identifierResolver;
 
@@ -17,6 +17,10 @@ sealed interface Expression {
 
     record Concat(List<Expression> parts) implements Expression {
 
+        public Concat {
+            parts = List.copyOf(parts);
+        }
+
         Concat(Expression... expressions) {
             this(List.of(expressions));
         }
@@ -0,0 +1,122 @@
+package com.quaxantis.etui.template.expression.eel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rewrites an {@link Expression} into one with fewer nodes that resolves to the same value for all identifier values,
+ * including {@code null}: nested concatenations are flattened, adjacent texts merged, delegates removed,
+ * and elvis and optional expressions are resolved when their main expression is constant or never empty.
+ */
+final class ExpressionNormalizer {
+
+    private ExpressionNormalizer() {
+    }
+
+    static Expression normalize(Expression expression) {
+        return switch (expression) {
+            case Expression.Text text -> text;
+            case Expression.Identifier identifier -> identifier;
+            case Expression.Concat(var parts) -> concat(parts.stream().map(ExpressionNormalizer::normalize).toList());
+            case Expression.Elvis(var main, var orElse) -> elvis(normalize(main), normalize(orElse));
+            case Expression.OptPrefix(var prefix, var main) -> optPrefix(normalize(prefix), normalize(main));
+            case Expression.OptSuffix(var main, var suffix) -> optSuffix(normalize(main), normalize(suffix));
+            case Expression.Delegate(var delegate) -> normalize(delegate);
+        };
+    }
+
+    private static Expression concat(List<Expression> normalizedParts) {
+        List<Expression> parts = new ArrayList<>(normalizedParts.size());
+        for (Expression part : normalizedParts) {
+            if (part instanceof Expression.Concat(var nestedParts)) {
+                nestedParts.forEach(nestedPart -> appendPart(parts, nestedPart));
+            } else {
+                appendPart(parts, part);
+            }
+        }
+
+        if (parts.isEmpty()) {
+            return new Expression.Text("");
+        } else if (parts.size() == 1 && !canBeNull(parts.getFirst())) {
+            // A concatenation resolves a null part to an empty string
+            return parts.getFirst();
+        } else {
+            return new Expression.Concat(parts);
+        }
+    }
+
+    private static void appendPart(List<Expression> parts, Expression part) {
+        if (part instanceof Expression.Text(var literal)) {
+            if (literal.isEmpty()) {
+                return;
+            }
+            if (!parts.isEmpty() && parts.getLast() instanceof Expression.Text(var previous)) {
+                parts.set(parts.size() - 1, new Expression.Text(previous + literal));
+                return;
+            }
+        }
+        parts.add(part);
+    }
+
+    private static Expression elvis(Expression main, Expression orElse) {
+        // (a ?: b) ?: c resolves like a ?: (b ?: c), where a constant b is resolved in turn
+        if (main instanceof Expression.Elvis(var nestedMain, var nestedOrElse)) {
+            return elvis(nestedMain, elvis(nestedOrElse, orElse));
+        }
+        if (main instanceof Expression.Text(var literal)) {
+            return literal.isEmpty() ? orElse : main;
+        }
+        // The fallback of a main expression that is never empty is never resolved
+        return canBeEmpty(main) ? new Expression.Elvis(main, orElse) : main;
+    }
+
+    private static Expression optPrefix(Expression prefix, Expression main) {
+        if (!canBeEmpty(main)) {
+            return concat(List.of(prefix, main));
+        }
+        if (main instanceof Expression.Text) {
+            return main;
+        }
+        if (prefix instanceof Expression.Text(var literal) && literal.isEmpty()) {
+            return main;
+        }
+        return new Expression.OptPrefix(prefix, main);
+    }
+
+    private static Expression optSuffix(Expression main, Expression suffix) {
+        if (!canBeEmpty(main)) {
+            return concat(List.of(main, suffix));
+        }
+        if (main instanceof Expression.Text) {
+            return main;
+        }
+        if (suffix instanceof Expression.Text(var literal) && literal.isEmpty()) {
+            return main;
+        }
+        return new Expression.OptSuffix(main, suffix);
+    }
+
+    // Whether the expression can resolve to an empty string or null
+    private static boolean canBeEmpty(Expression expression) {
+        return switch (expression) {
+            case Expression.Text(var literal) -> literal.isEmpty();
+            case Expression.Identifier _ -> true;
+            case Expression.Concat(var parts) -> parts.stream().allMatch(ExpressionNormalizer::canBeEmpty);
+            case Expression.Elvis(var main, var orElse) -> canBeEmpty(main) && canBeEmpty(orElse);
+            case Expression.OptPrefix(_, var main) -> canBeEmpty(main);
+            case Expression.OptSuffix(var main, _) -> canBeEmpty(main);
+            case Expression.Delegate(var delegate) -> canBeEmpty(delegate);
+        };
+    }
+
+    private static boolean canBeNull(Expression expression) {
+        return switch (expression) {
+            case Expression.Text _, Expression.Concat _ -> false;
+            case Expression.Identifier _ -> true;
+            case Expression.Elvis(_, var orElse) -> canBeNull(orElse);
+            case Expression.OptPrefix(_, var main) -> canBeNull(main);
+            case Expression.OptSuffix(var main, _) -> canBeNull(main);
+            case Expression.Delegate(var delegate) -> canBeNull(delegate);
+        };
+    }
+}
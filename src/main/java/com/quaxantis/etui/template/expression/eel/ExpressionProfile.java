@@ -0,0 +1,111 @@
+package com.quaxantis.etui.template.expression.eel;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Static properties of an {@link Expression} that hold for every match found by {@link EELExpressionAnalyzer}.
+ *
+ * @param minLength   the minimum length of a match
+ * @param maxLength   the maximum length of a match, or {@link #UNBOUNDED} when the expression contains identifiers
+ * @param anchors     the literals that must occur in a string for the expression to match it
+ * @param identifiers the names of the identifiers in the expression
+ */
+record ExpressionProfile(int minLength, int maxLength, List<String> anchors, Set<String> identifiers) {
+    static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private static final ExpressionProfile EMPTY = new ExpressionProfile(0, 0, List.of(), Set.of());
+
+    ExpressionProfile {
+        anchors = List.copyOf(anchors);
+        identifiers = Set.copyOf(identifiers);
+    }
+
+    boolean canBeEmpty() {
+        return minLength == 0;
+    }
+
+    boolean isPossibleIn(String string) {
+        return isPossibleIn(string.length(), string::contains);
+    }
+
+    /**
+     * @param containsAnchor whether the string contains the given anchor
+     */
+    boolean isPossibleIn(int length, Predicate<String> containsAnchor) {
+        if (length < minLength) {
+            return false;
+        }
+        for (String anchor : anchors) {
+            if (!containsAnchor.test(anchor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Profiles the expression and its subexpressions, reusing the profiles already in the cache.
+     */
+    static ExpressionProfile of(Expression expression, Map<Expression, ExpressionProfile> cache) {
+        ExpressionProfile profile = cache.get(expression);
+        if (profile == null) {
+            profile = switch (expression) {
+                case Expression.Text(var literal) -> new ExpressionProfile(literal.length(), literal.length(),
+                                                                           literal.isEmpty() ? List.of() : List.of(literal), Set.of());
+                case Expression.Identifier(var name) -> new ExpressionProfile(0, UNBOUNDED, List.of(), Set.of(name));
+                case Expression.Concat(var parts) -> parts.stream()
+                        .map(part -> of(part, cache))
+                        .reduce(EMPTY, ExpressionProfile::concat);
+                case Expression.Elvis(var main, var orElse) -> elvis(of(main, cache), of(orElse, cache));
+                case Expression.OptPrefix(var prefix, var main) -> optional(of(main, cache), of(prefix, cache));
+                case Expression.OptSuffix(var main, var suffix) -> optional(of(main, cache), of(suffix, cache));
+                case Expression.Delegate(var delegate) -> of(delegate, cache);
+            };
+            cache.put(expression, profile);
+        }
+        return profile;
+    }
+
+    private static ExpressionProfile concat(ExpressionProfile one, ExpressionProfile two) {
+        return new ExpressionProfile(one.minLength + two.minLength, add(one.maxLength, two.maxLength),
+                                     union(one.anchors, two.anchors), union(one.identifiers, two.identifiers));
+    }
+
+    // The main expression is matched when it is not empty, or else the alternative
+    private static ExpressionProfile elvis(ExpressionProfile main, ExpressionProfile orElse) {
+        int minLength = main.canBeEmpty() ? Math.min(1, orElse.minLength) : main.minLength;
+        return new ExpressionProfile(minLength, Math.max(main.maxLength, orElse.maxLength),
+                                     main.anchors, union(main.identifiers, orElse.identifiers));
+    }
+
+    // The addition is matched along with the main expression when the main expression is not empty
+    private static ExpressionProfile optional(ExpressionProfile main, ExpressionProfile addition) {
+        ExpressionProfile combined = concat(main, addition);
+        if (main.canBeEmpty()) {
+            return new ExpressionProfile(0, combined.maxLength, main.anchors, combined.identifiers);
+        } else {
+            return combined;
+        }
+    }
+
+    private static int add(int one, int two) {
+        return (one == UNBOUNDED || two == UNBOUNDED) ? UNBOUNDED : one + two;
+    }
+
+    private static <T> List<T> union(List<T> one, List<T> two) {
+        List<T> union = new ArrayList<>(one);
+        two.stream().filter(t -> !one.contains(t)).forEach(union::add);
+        return union;
+    }
+
+    private static <T> Set<T> union(Set<T> one, Set<T> two) {
+        Set<T> union = new HashSet<>(one);
+        union.addAll(two);
+        return union;
+    }
+}
@@ -0,0 +1,122 @@
+package com.quaxantis.etui.template.expression.eel;
+
+import java.util.*;
+
+/**
+ * The positions of the literals of an expression in a string, found in a single Aho–Corasick scan of the string.
+ * Not thread-safe: literals outside the expression are searched and added on demand.
+ */
+final class LiteralIndex {
+    private static final int[] NONE = new int[0];
+
+    private final String string;
+    private final Map<String, int[]> positions;
+
+    private LiteralIndex(String string, Map<String, int[]> positions) {
+        this.string = string;
+        this.positions = positions;
+    }
+
+    static LiteralIndex of(Expression expression, String string) {
+        Set<String> literals = new LinkedHashSet<>();
+        collectLiterals(expression, literals);
+        return new LiteralIndex(string, scan(literals, string));
+    }
+
+    /**
+     * The ascending start positions of the literal in the string, which may overlap.
+     */
+    int[] positions(String literal) {
+        return positions.computeIfAbsent(literal, _ -> scan(Set.of(literal), string).get(literal));
+    }
+
+    boolean contains(String literal) {
+        return literal.isEmpty() || positions(literal).length > 0;
+    }
+
+    private static void collectLiterals(Expression expression, Set<String> literals) {
+        switch (expression) {
+            case Expression.Text(var literal) -> {
+                if (!literal.isEmpty()) {
+                    literals.add(literal);
+                }
+            }
+            case Expression.Identifier _ -> {
+            }
+            case Expression.Concat(var parts) -> parts.forEach(part -> collectLiterals(part, literals));
+            case Expression.Elvis(var main, var orElse) -> {
+                collectLiterals(main, literals);
+                collectLiterals(orElse, literals);
+            }
+            case Expression.OptPrefix(var prefix, var main) -> {
+                collectLiterals(prefix, literals);
+                collectLiterals(main, literals);
+            }
+            case Expression.OptSuffix(var main, var suffix) -> {
+                collectLiterals(main, literals);
+                collectLiterals(suffix, literals);
+            }
+            case Expression.Delegate(var delegate) -> collectLiterals(delegate, literals);
+        }
+    }
+
+    private static Map<String, int[]> scan(Collection<String> literals, String string) {
+        // Trie of the literals, with the literals ending at each node
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<List<String>> outputs = new ArrayList<>();
+        children.add(new HashMap<>());
+        outputs.add(new ArrayList<>());
+        for (String literal : literals) {
+            int node = 0;
+            for (int i = 0; i < literal.length(); i++) {
+                Integer child = children.get(node).get(literal.charAt(i));
+                if (child == null) {
+                    child = children.size();
+                    children.add(new HashMap<>());
+                    outputs.add(new ArrayList<>());
+                    children.get(node).put(literal.charAt(i), child);
+                }
+                node = child;
+            }
+            outputs.get(node).add(literal);
+        }
+
+        // Failure links to the longest proper suffix in the trie, in breadth-first order
+        int[] failure = new int[children.size()];
+        Deque<Integer> queue = new ArrayDeque<>(children.getFirst().values());
+        while (!queue.isEmpty()) {
+            int node = queue.removeFirst();
+            for (Map.Entry<Character, Integer> entry : children.get(node).entrySet()) {
+                int child = entry.getValue();
+                int fallback = failure[node];
+                while (fallback != 0 && !children.get(fallback).containsKey(entry.getKey())) {
+                    fallback = failure[fallback];
+                }
+                Integer suffix = children.get(fallback).get(entry.getKey());
+                failure[child] = (suffix == null) ? 0 : suffix;
+                outputs.get(child).addAll(outputs.get(failure[child]));
+                queue.addLast(child);
+            }
+        }
+
+        Map<String, List<Integer>> found = new HashMap<>();
+        int state = 0;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            while (state != 0 && !children.get(state).containsKey(c)) {
+                state = failure[state];
+            }
+            state = children.get(state).getOrDefault(c, 0);
+            for (String literal : outputs.get(state)) {
+                found.computeIfAbsent(literal, _ -> new ArrayList<>()).add(i - literal.length() + 1);
+            }
+        }
+
+        Map<String, int[]> positions = new HashMap<>();
+        for (String literal : literals) {
+            List<Integer> starts = found.get(literal);
+            positions.put(literal, (starts == null) ? NONE : starts.stream().mapToInt(Integer::intValue).toArray());
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,244 @@
+package com.quaxantis.etui.template.expression.eel;
+
+import com.quaxantis.etui.template.expression.Binding;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Deinterpolates an {@link Expression} with an anchored regular expression, for the expressions that map exactly onto one:
+ * texts, identifiers occurring once, concatenations, and optional prefixes and suffixes with a constant affix.
+ * <p>
+ * A value is matched once with greedy and once with reluctant quantifiers, which try the alternatives in opposite orders.
+ * When both matches take the same alternatives, that is the only way the expression evaluates to the value.
+ * Otherwise the value is ambiguous, and is left to {@link EELExpressionAnalyzer}.
+ */
+final class RegexDeinterpolator {
+    // Backtracking can take exponential time, so matching gives up after this many reads per character of the value
+    private static final int MAX_READS_PER_CHAR = 256;
+
+    private final Pattern greedy;
+    private final Pattern reluctant;
+    private final Map<String, Integer> groups;
+
+    private RegexDeinterpolator(Pattern greedy, Pattern reluctant, Map<String, Integer> groups) {
+        this.greedy = greedy;
+        this.reluctant = reluctant;
+        this.groups = groups;
+    }
+
+    /**
+     * The deinterpolator of the expression, or empty when the expression does not map exactly onto a regular expression.
+     */
+    static Optional<RegexDeinterpolator> of(Expression expression) {
+        Builder builder = new Builder();
+        return builder.append(expression, false)
+                .map(_ -> new RegexDeinterpolator(Pattern.compile(builder.greedy.toString(), Pattern.DOTALL),
+                                                  Pattern.compile(builder.reluctant.toString(), Pattern.DOTALL),
+                                                  Map.copyOf(builder.groups)));
+    }
+
+    /**
+     * The only binding for which the expression evaluates to the value,
+     * or empty when the value does not match or could be matched in several ways.
+     */
+    Optional<Binding> deinterpolate(String value) {
+        Matcher greedyMatch;
+        Matcher reluctantMatch;
+        try {
+            greedyMatch = greedy.matcher(new BoundedCharSequence(value));
+            reluctantMatch = reluctant.matcher(new BoundedCharSequence(value));
+            if (!greedyMatch.matches() || !reluctantMatch.matches()) {
+                return Optional.empty();
+            }
+        } catch (TooManyReads _) {
+            return Optional.empty();
+        }
+
+        for (int group = 1; group <= greedyMatch.groupCount(); group++) {
+            if (greedyMatch.start(group) != reluctantMatch.start(group) || greedyMatch.end(group) != reluctantMatch.end(group)) {
+                return Optional.empty();
+            }
+        }
+
+        Map<String, String> values = new HashMap<>();
+        groups.forEach((identifier, group) -> {
+            // Identifiers in an omitted optional part are empty
+            String groupValue = greedyMatch.group(group);
+            values.put(identifier, (groupValue == null) ? "" : groupValue);
+        });
+        return Optional.of(new ExactBinding(Map.copyOf(values)));
+    }
+
+    private static final class Builder {
+        private final StringBuilder greedy = new StringBuilder();
+        private final StringBuilder reluctant = new StringBuilder();
+        private final Map<String, Integer> groups = new LinkedHashMap<>();
+        private int groupCount = 0;
+
+        private Optional<Shape> append(Expression expression, boolean nonEmpty) {
+            Optional<Shape> shape = switch (expression) {
+                case Expression.Text(var literal) -> {
+                    appendBoth(literal.isEmpty() ? "" : Pattern.quote(literal));
+                    yield Optional.of(new Shape(literal.isEmpty(), false, false));
+                }
+                case Expression.Identifier(var name) -> {
+                    // Repeated identifiers need a back reference, which the analyzer handles instead
+                    if (groups.containsKey(name)) {
+                        yield Optional.empty();
+                    }
+                    groups.put(name, openGroup());
+                    greedy.append(nonEmpty ? ".+)" : ".*)");
+                    reluctant.append(nonEmpty ? ".+?)" : ".*?)");
+                    yield Optional.of(new Shape(!nonEmpty, true, true));
+                }
+                case Expression.Concat(var parts) -> appendConcat(parts);
+                case Expression.OptPrefix(var prefix, var main) -> constantValue(prefix).flatMap(value -> appendOptional(value, main, "", nonEmpty));
+                case Expression.OptSuffix(var main, var suffix) -> constantValue(suffix).flatMap(value -> appendOptional("", main, value, nonEmpty));
+                case Expression.Delegate(var delegate) -> append(delegate, nonEmpty);
+                // Either side can produce the value, so there is no single binding
+                case Expression.Elvis _ -> Optional.empty();
+            };
+            return shape.filter(s -> !nonEmpty || !s.canBeEmpty());
+        }
+
+        private Optional<Shape> appendConcat(Iterable<Expression> parts) {
+            boolean canBeEmpty = true;
+            boolean startsWithIdentifier = false;
+            boolean endsWithIdentifier = false;
+            for (Expression part : parts) {
+                Optional<Shape> appended = append(part, false);
+                if (appended.isEmpty()) {
+                    return Optional.empty();
+                }
+                Shape shape = appended.get();
+                // Adjacent identifiers can split their values anywhere
+                if (endsWithIdentifier && shape.startsWithIdentifier()) {
+                    return Optional.empty();
+                }
+                startsWithIdentifier |= canBeEmpty && shape.startsWithIdentifier();
+                endsWithIdentifier = shape.endsWithIdentifier() || (shape.canBeEmpty() && endsWithIdentifier);
+                canBeEmpty &= shape.canBeEmpty();
+            }
+            return Optional.of(new Shape(canBeEmpty, startsWithIdentifier, endsWithIdentifier));
+        }
+
+        // The affix is only present when the main expression is not empty.
+        // The optional part is a group of its own, so that the greedy and reluctant matches can be compared on its presence.
+        private Optional<Shape> appendOptional(String prefix, Expression main, String suffix, boolean nonEmpty) {
+            boolean optional = !nonEmpty && canBeEmpty(main);
+            openGroup();
+            appendBoth(prefix.isEmpty() ? "" : Pattern.quote(prefix));
+            Optional<Shape> mainShape = append(main, true);
+            appendBoth(suffix.isEmpty() ? "" : Pattern.quote(suffix));
+            greedy.append(optional ? ")?" : ")");
+            reluctant.append(optional ? ")??" : ")");
+            return mainShape.map(shape -> new Shape(optional,
+                                                    prefix.isEmpty() && shape.startsWithIdentifier(),
+                                                    suffix.isEmpty() && shape.endsWithIdentifier()));
+        }
+
+        private int openGroup() {
+            appendBoth("(");
+            return ++groupCount;
+        }
+
+        private void appendBoth(String regex) {
+            greedy.append(regex);
+            reluctant.append(regex);
+        }
+
+        private static boolean canBeEmpty(Expression expression) {
+            return switch (expression) {
+                case Expression.Text(var literal) -> literal.isEmpty();
+                case Expression.Identifier _ -> true;
+                case Expression.Concat(var parts) -> parts.stream().allMatch(Builder::canBeEmpty);
+                case Expression.Elvis(var main, var orElse) -> canBeEmpty(main) && canBeEmpty(orElse);
+                case Expression.OptPrefix(_, var main) -> canBeEmpty(main);
+                case Expression.OptSuffix(var main, _) -> canBeEmpty(main);
+                case Expression.Delegate(var delegate) -> canBeEmpty(delegate);
+            };
+        }
+
+        private static Optional<String> constantValue(Expression expression) {
+            return switch (expression) {
+                case Expression.Text(var literal) -> Optional.of(literal);
+                case Expression.Concat(var parts) -> {
+                    StringBuilder value = new StringBuilder();
+                    for (Expression part : parts) {
+                        Optional<String> partValue = constantValue(part);
+                        if (partValue.isEmpty()) {
+                            yield Optional.empty();
+                        }
+                        value.append(partValue.get());
+                    }
+                    yield Optional.of(value.toString());
+                }
+                case Expression.Delegate(var delegate) -> constantValue(delegate);
+                default -> Optional.empty();
+            };
+        }
+    }
+
+    /**
+     * @param startsWithIdentifier whether the value may start with the value of an identifier
+     * @param endsWithIdentifier   whether the value may end with the value of an identifier
+     */
+    private record Shape(boolean canBeEmpty, boolean startsWithIdentifier, boolean endsWithIdentifier) {}
+
+    // The score the analyzer gives to an exact match without given bindings
+    private record ExactBinding(Map<String, String> values) implements Binding {
+        @Override
+        public double score() {
+            return 1.0;
+        }
+
+        @Override
+        public Optional<String> valueOf(String variable) {
+            return Optional.ofNullable(values.get(variable));
+        }
+    }
+
+    private static final class BoundedCharSequence implements CharSequence {
+        private final String string;
+        private long remainingReads;
+
+        private BoundedCharSequence(String string) {
+            this.string = string;
+            this.remainingReads = MAX_READS_PER_CHAR * (string.length() + 1L);
+        }
+
+        @Override
+        public int length() {
+            return string.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (--remainingReads < 0) {
+                throw new TooManyReads();
+            }
+            return string.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return string.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return string;
+        }
+    }
+
+    private static final class TooManyReads extends RuntimeException {
+        private TooManyReads() {
+            super(null, null, false, false);
+        }
+    }
+}
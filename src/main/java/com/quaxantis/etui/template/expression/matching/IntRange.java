@@ -1,5 +1,6 @@
 package com.quaxantis.etui.template.expression.matching;
 
+import java.util.Optional;
 import java.util.function.BiFunction;
 
 public record IntRange(int from, int exclusiveTo) {
@@ -8,12 +9,23 @@ public record IntRange(int from, int exclusiveTo) {
         return new IntRange(from, exclusiveTo);
     }
 
+    /**
+     * Creates the range, or returns empty without throwing when {@code from} is larger than {@code exclusiveTo}.
+     */
+    public static Optional<IntRange> ofValid(int from, int exclusiveTo) {
+        return isValid(from, exclusiveTo) ? Optional.of(new IntRange(from, exclusiveTo)) : Optional.empty();
+    }
+
+    public static boolean isValid(int from, int exclusiveTo) {
+        return from <= exclusiveTo;
+    }
+
     public static IntRange ofClosed(int from, int inclusiveTo) {
         return new IntRange(from, inclusiveTo + 1);
     }
 
     public IntRange {
-        if (from > exclusiveTo) {
+        if (!isValid(from, exclusiveTo)) {
             throw new IllegalArgumentException("Cannot create range where from=%d is larger than to=%d".formatted(from, exclusiveTo));
         }
     }
@@ -1,11 +1,10 @@
 package com.quaxantis.etui.template.expression.matching;
 
-import com.quaxantis.support.util.Result;
-
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
 import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collector;
@@ -17,6 +16,13 @@ import static java.util.stream.Collectors.*;
 
 public sealed abstract class Match {
 
+    // Matches are immutable and shared by many candidate matches, so their score is computed once.
+    // Racing threads compute equal scores, which are immutable as well.
+    // Bindings and given bindings are derived again when asked for, so that an analysis does not hold them for all its matches.
+    // Matches stay plain objects rather than views on arrays owned by an analysis: the analyzer memoizes them by identity,
+    // and the matches it returns derive their bindings from their parents after the analysis is done.
+    private Score score;
+
     public static @Nonnull Match withGivenBindings(@Nonnull Object expression, @Nonnull String fullString, @Nonnull Map<String, String> bindings) {
         Map<String, RangeFlex.Applied> givenBindings = bindings.entrySet().stream()
                 .collect(Collectors.toMap(Map.Entry::getKey, entry -> RangeFlex.Applied.ofCompleteFixed(entry.getValue())));
@@ -30,7 +36,7 @@ public sealed abstract class Match {
     public static @Nonnull NoMatch noMatch(@Nullable String reason, @Nonnull Object expression, @Nonnull String fullString, Match... mismatches) {
         Objects.requireNonNull(expression, "expression");
         Objects.requireNonNull(fullString, "fullString");
-        return new NoMatch(expression, fullString, reason, mismatches);
+        return new NoMatch(expression, fullString, () -> reason, mismatches);
     }
 
     abstract String fullString();
@@ -64,12 +70,11 @@ public sealed abstract class Match {
 
     public abstract Match constrain(Constraint constraint, Object causeExpression);
 
-    protected Match tryConstrain(Supplier<Match> supplier) {
-        try {
-            return supplier.get();
-        } catch (Exception exc) {
-            return notMatchingBecause(exc.toString());
-        }
+    // Failing constraints are common while matching, so they are detected without exceptions and explained lazily
+    protected Match constrainedTo(Constraint constraint, Object causeExpression) {
+        return matchRange().constrainIfPossible(constraint)
+                .<Match>map(range -> new PartialMatch(this, causeExpression, range))
+                .orElseGet(() -> notMatchingBecause(() -> "Cannot constrain " + matchRange().applyTo(fullString()) + " with " + constraint));
     }
 
     abstract Stream<Map.Entry<String, RangeFlex.Applied>> givenBindings();
@@ -84,30 +89,66 @@ public sealed abstract class Match {
         return scoreObject().value();
     }
 
-    public abstract Score scoreObject();
+    public final Score scoreObject() {
+        Score result = this.score;
+        if (result == null) {
+            result = this.score = computeScore();
+        }
+        return result;
+    }
+
+    abstract Score computeScore();
+
+    /**
+     * The highest score the match can have once it is constrained further.
+     * Constraining can change the values of bound variables, and with it how they compare to the given values.
+     */
+    public double maxScore() {
+        return score();
+    }
 
     @Nonnull
     public Match binding(@Nonnull Object expression, @Nonnull String boundVariable) {
+        BindingMatch.verifyNoConflictingBindings(this, boundVariable);
         return new BindingMatch(this, expression, boundVariable);
     }
 
     @Nonnull
     public Match bindingAll(@Nonnull Object causeExpression, @Nonnull List<Binding> bindings) {
-        Supplier<Stream<Map.Entry<String, RangeFlex.Applied>>> givenBindings = () ->
-                bindings.stream().flatMap(
-                        binding -> binding.boundVariables()
-                                .map(var -> binding.valueRangeOf(var).map(range -> Map.entry(var, range)))
-                                .flatMap(Optional::stream)
-                );
+        return addingGivenBindings(causeExpression, valueRanges(bindings, _ -> true));
+    }
 
+    /**
+     * Adds value ranges as given bindings, as obtained from {@link #valueRanges(List, Predicate)}.
+     */
+    @Nonnull
+    public Match addingGivenBindings(@Nonnull Object causeExpression, @Nonnull List<Map.Entry<String, RangeFlex.Applied>> givenBindings) {
         // TODO Check that this is no longer possible after introducing "delegated binding"
-        givenBindings = givenBindings.get().toList()::stream;
+        List<Map.Entry<String, RangeFlex.Applied>> copy = List.copyOf(givenBindings);
+        return new AddGivenBindings(this, causeExpression, copy::stream);
+    }
 
-        return new AddGivenBindings(this, causeExpression, givenBindings);
+    /**
+     * Lists the value ranges of the bound variables accepted by the filter.
+     * The resulting entries support equality, so equal lists result in equivalent given bindings.
+     */
+    @Nonnull
+    public static List<Map.Entry<String, RangeFlex.Applied>> valueRanges(@Nonnull List<Binding> bindings, @Nonnull Predicate<String> variableFilter) {
+        return bindings.stream().flatMap(
+                binding -> binding.boundVariables()
+                        .filter(variableFilter)
+                        .map(var -> binding.valueRangeOf(var).map(range -> Map.entry(var, range)))
+                        .flatMap(Optional::stream)
+        ).toList();
     }
 
     @Nonnull
     public NoMatch notMatchingBecause(@Nonnull String reason) {
+        return notMatchingBecause(() -> reason);
+    }
+
+    @Nonnull
+    public NoMatch notMatchingBecause(@Nonnull Supplier<String> reason) {
         return new NoMatch(this.expression(), this.fullString(), reason, this);
     }
 
@@ -157,28 +198,28 @@ public sealed abstract class Match {
         }
 
         @Override
-        public Stream<Map.Entry<String, RangeFlex.Applied>> givenBindings() {
+        Stream<Map.Entry<String, RangeFlex.Applied>> givenBindings() {
             return Stream.empty();
         }
     }
 
     public static final class NoMatch extends BindingLessMatch {
         @Nullable
-        private final String reason;
+        private final Supplier<String> reason;
         private final Collection<Match> mismatches;
 
-        private NoMatch(@Nonnull Object expression, @Nonnull String fullString, @Nullable String reason, Match... mismatches) {
+        private NoMatch(@Nonnull Object expression, @Nonnull String fullString, @Nullable Supplier<String> reason, Match... mismatches) {
             this(expression, fullString, reason, List.of(mismatches));
         }
 
-        private NoMatch(@Nonnull Object expression, @Nonnull String fullString, @Nullable String reason, Collection<Match> mismatches) {
+        private NoMatch(@Nonnull Object expression, @Nonnull String fullString, @Nullable Supplier<String> reason, Collection<Match> mismatches) {
             super(fullString, expression);
             this.reason = reason;
             this.mismatches = mismatches;
         }
 
         @Override
-        public Stats recursiveStats() {
+        Stats recursiveStats() {
             return mismatches.stream()
                     .collect(Stats.toStats())
                     .andThen(d -> d + 1, s -> s + 1, n -> n + 1);
@@ -195,7 +236,7 @@ public sealed abstract class Match {
         }
 
         @Override
-        public Score scoreObject() {
+        Score computeScore() {
             return Score.of(0.0, "no match");
         }
 
@@ -207,7 +248,7 @@ public sealed abstract class Match {
 
         @Override
         public String toString() {
-            return getClass().getSimpleName() + "[" + reason + "]";
+            return getClass().getSimpleName() + "[" + (reason == null ? null : reason.get()) + "]";
         }
     }
 
@@ -222,7 +263,7 @@ public sealed abstract class Match {
         }
 
         @Override
-        public Stats recursiveStats() {
+        Stats recursiveStats() {
             return new Stats(1, 1, 0);
         }
 
@@ -233,16 +274,16 @@ public sealed abstract class Match {
 
         @Override
         public Match constrain(Constraint constraint, Object causeExpression) {
-            return tryConstrain(() -> new PartialMatch(this, causeExpression, matchRange().constrain(constraint)));
+            return constrainedTo(constraint, causeExpression);
         }
 
         @Override
-        public Stream<Map.Entry<String, RangeFlex.Applied>> givenBindings() {
+        Stream<Map.Entry<String, RangeFlex.Applied>> givenBindings() {
             return givenBindingsMap.entrySet().stream();
         }
 
         @Override
-        public Score scoreObject() {
+        Score computeScore() {
             return Score.base("no bindings");
         }
 
@@ -281,7 +322,7 @@ public sealed abstract class Match {
         }
 
         @Override
-        public Stats recursiveStats() {
+        Stats recursiveStats() {
             Stats parentStats = parent.recursiveStats();
             return new Stats(parentStats.depth() + 1, parentStats.size() + 1, parentStats.noMatches());
         }
@@ -300,7 +341,7 @@ public sealed abstract class Match {
         protected abstract Match withNewParent(Match newParent, Object newExpression);
 
         @Override
-        public Stream<Map.Entry<String, RangeFlex.Applied>> givenBindings() {
+        Stream<Map.Entry<String, RangeFlex.Applied>> givenBindings() {
             return parent.givenBindings();
         }
 
@@ -315,9 +356,14 @@ public sealed abstract class Match {
         }
 
         @Override
-        public Score scoreObject() {
+        Score computeScore() {
             return parent.scoreObject();
         }
+
+        @Override
+        public double maxScore() {
+            return parent.maxScore();
+        }
     }
 
     private static final class BindingMatch extends MatchAdapter {
@@ -328,23 +374,29 @@ public sealed abstract class Match {
         private BindingMatch(@Nonnull Match parent, @Nonnull Object expression, @Nonnull String boundVariable) {
             super(parent, expression);
             this.boundVariable = boundVariable;
-            verifyNoConflictingBindings(parent, boundVariable);
         }
 
         private static void verifyNoConflictingBindings(Match parent, String boundVariable) {
-            parent.bindings()
-                    .map(binding -> binding.valueRangeOf(boundVariable))
-                    .flatMap(Optional::stream)
-                    .filter(inherited -> RangeFlex.Applied.merge(inherited, parent.appliedRange()).isEmpty())
-                    .findAny()
+            conflictingBinding(parent, boundVariable)
                     .ifPresent(incompatible -> {
                         throw new IllegalStateException("Cannot combine new binding match for variable %s with inherited binding match:%n%s%n%s".formatted(
                                 boundVariable, parent.appliedRange(), incompatible));
                     });
         }
 
+        private static Optional<RangeFlex.Applied> conflictingBinding(Match parent, String boundVariable) {
+            return parent.bindings()
+                    .map(binding -> binding.valueRangeOf(boundVariable))
+                    .flatMap(Optional::stream)
+                    .filter(inherited -> RangeFlex.Applied.merge(inherited, parent.appliedRange()).isEmpty())
+                    .findAny();
+        }
+
         @Override
-        protected BindingMatch withNewParent(Match newParent, Object newExpression) {
+        protected Match withNewParent(Match newParent, Object newExpression) {
+            if (conflictingBinding(newParent, boundVariable).isPresent()) {
+                return newParent.notMatchingBecause(() -> "Cannot rebind variable %s to %s".formatted(boundVariable, newParent.appliedRange()));
+            }
             return new BindingMatch(newParent, newExpression, boundVariable);
         }
 
@@ -360,29 +412,62 @@ public sealed abstract class Match {
         }
 
         @Override
-        public Score scoreObject() {
+        Score computeScore() {
             Score boundVariableScore = boundVariableScore();
-            return super.scoreObject().times(boundVariableScore, boundVariableScore.reason());
+            return super.computeScore().times(boundVariableScore, boundVariableScore::reason);
+        }
+
+        @Override
+        public double maxScore() {
+            // Only a value that cannot change anymore is sure to keep its comparison to the given values
+            RangeFlex range = matchRange();
+            boolean fixed = range.start().isEmpty() && range.end().isEmpty();
+            return fixed ? super.maxScore() * boundVariableScore().value() : super.maxScore();
         }
 
         private Score boundVariableScore() {
-            return givenBindings()
+            RangeFlex.Applied bound = appliedRange();
+            List<RangeFlex.Applied> givenRanges = givenBindings()
                     .filter(entry -> entry.getKey().equals(boundVariable))
                     .map(Map.Entry::getValue)
-                    .map(givenRange -> score(appliedRange(), givenRange))
-                    .reduce(Score.of(1.0, boundVariable + "=" + appliedRange().format()), (current, given) -> current.times(given, current.reason() + " & " + given.reason()));
+                    .toList();
+            double value = 1.0;
+            for (RangeFlex.Applied given : givenRanges) {
+                value *= GivenValueComparison.of(bound, given).score;
+            }
+            return Score.of(value, () -> Stream.concat(Stream.of(boundVariable + "=" + bound.format()),
+                                                       givenRanges.stream().map(given -> GivenValueComparison.of(bound, given).reason(given)))
+                    .collect(joining(" & ")));
         }
 
-        private Score score(RangeFlex.Applied bound, RangeFlex.Applied given) {
-            String value1 = bound.extractMax();
-            String value2 = given.extractMax();
-            if (value1.equals(value2)) {
-                return Score.of(1.0, "equal to given value: " + given);
-            } else if (value1.isEmpty() && !value2.isEmpty()) {
-                return Score.of(0.5, "omitted given value: " + given.format());
-            } else {
-                return RangeFlex.Applied.merge(bound, given).map(_ -> Score.of(.9, "merged with given value: " + given.format()))
-                        .orElseGet(() -> Score.of(0.2, "different from given value: " + given.format()));
+        private enum GivenValueComparison {
+            EQUAL(1.0, "equal to given value: "),
+            OMITTED(0.5, "omitted given value: "),
+            MERGED(0.9, "merged with given value: "),
+            DIFFERENT(0.2, "different from given value: ");
+
+            private final double score;
+            private final String description;
+
+            GivenValueComparison(double score, String description) {
+                this.score = score;
+                this.description = description;
+            }
+
+            static GivenValueComparison of(RangeFlex.Applied bound, RangeFlex.Applied given) {
+                String value1 = bound.extractMax();
+                String value2 = given.extractMax();
+                if (value1.equals(value2)) {
+                    return EQUAL;
+                } else if (value1.isEmpty() && !value2.isEmpty()) {
+                    return OMITTED;
+                } else {
+                    return RangeFlex.Applied.merge(bound, given).isPresent() ? MERGED : DIFFERENT;
+                }
+            }
+
+            String reason(RangeFlex.Applied given) {
+                return description + (this == EQUAL ? given.toString() : given.format());
             }
         }
 
@@ -409,7 +494,7 @@ public sealed abstract class Match {
         }
 
         @Override
-        public Stream<Map.Entry<String, RangeFlex.Applied>> givenBindings() {
+        Stream<Map.Entry<String, RangeFlex.Applied>> givenBindings() {
             return Stream.concat(super.givenBindings(), addedGivenBindings.get());
         }
 
@@ -437,7 +522,7 @@ public sealed abstract class Match {
 
         @Override
         public Match constrain(Constraint constraint, Object causeExpression) {
-            return tryConstrain(() -> new PartialMatch(this, causeExpression, range.constrain(constraint)));
+            return constrainedTo(constraint, causeExpression);
         }
 
         @Override
@@ -482,20 +567,20 @@ public sealed abstract class Match {
             if (leftMatch instanceof NoMatch || rightMatch instanceof NoMatch) {
                 return new NoMatch(expression, fullString, null, leftMatch, rightMatch);
             } else {
-                return switch (RangeFlex.tryConcat(leftMatch.matchRange(), rightMatch.matchRange())) {
-                    case Result.Success(RangeFlex.ConcatResult(var left, var right, var combined)) -> {
-                        var constrainedLeftMatch = leftMatch.constrain(toRange(left), expression);
-                        var constrainedRightMatch = rightMatch.constrain(toRange(right), expression);
-                        if (constrainedLeftMatch instanceof NoMatch || constrainedRightMatch instanceof NoMatch) {
-                            yield new NoMatch(expression, fullString, "Cannot concatenate constrainted ranges", constrainedLeftMatch, constrainedRightMatch);
-                        }
-                        yield new ConcatMatch(expression, fullString, constrainedLeftMatch, constrainedRightMatch, combined);
-                    }
-                    case Result.Failure(var exc) -> {
-                        String reason = exc + " at " + exc.getStackTrace()[0];
-                        yield new NoMatch(expression, fullString, reason, leftMatch, rightMatch);
-                    }
-                };
+                return RangeFlex.concatIfPossible(leftMatch.matchRange(), rightMatch.matchRange())
+                        .map(concatResult -> concatenating(leftMatch, rightMatch, concatResult, expression, fullString))
+                        .orElseGet(() -> new NoMatch(expression, fullString, () -> "Cannot concatenate ranges %s and %s".formatted(
+                                leftMatch.appliedRange(), rightMatch.appliedRange()), leftMatch, rightMatch));
+            }
+        }
+
+        private static Match concatenating(Match leftMatch, Match rightMatch, RangeFlex.ConcatResult concatResult, Object expression, String fullString) {
+            var constrainedLeftMatch = leftMatch.constrain(toRange(concatResult.left()), expression);
+            var constrainedRightMatch = rightMatch.constrain(toRange(concatResult.right()), expression);
+            if (constrainedLeftMatch instanceof NoMatch || constrainedRightMatch instanceof NoMatch) {
+                return new NoMatch(expression, fullString, () -> "Cannot concatenate constrainted ranges", constrainedLeftMatch, constrainedRightMatch);
+            } else {
+                return new ConcatMatch(expression, fullString, constrainedLeftMatch, constrainedRightMatch, concatResult.combined());
             }
         }
 
@@ -517,7 +602,7 @@ public sealed abstract class Match {
         }
 
         @Override
-        public Stats recursiveStats() {
+        Stats recursiveStats() {
             Stats leftStats = left.recursiveStats();
             Stats rightStats = right.recursiveStats();
             return new Stats(Math.max(leftStats.depth, rightStats.depth()) + 1, leftStats.depth() + rightStats.depth() + 1, leftStats.noMatches() + rightStats.noMatches());
@@ -531,16 +616,20 @@ public sealed abstract class Match {
 
         @Override
         public Match constrain(Constraint constraint, Object causeExpression) {
-            return tryConstrain(() -> (constraint instanceof Constraint.MinLength minLength)
-                    // minimum length does not apply to each side individually
-                    ? new ConcatMatch(expression, fullString, left, right, matchRange.constrain(minLength))
-                    // other constraints can be applied to each side individually
-                    : new ConcatMatch(expression, fullString, left.constrain(constraint, causeExpression), right.constrain(constraint, causeExpression), matchRange.constrain(constraint))
-            );
+            // minimum length does not apply to each side individually, other constraints can be applied to each side individually
+            boolean individually = !(constraint instanceof Constraint.MinLength);
+            Match constrainedLeft = individually ? left.constrain(constraint, causeExpression) : left;
+            Match constrainedRight = individually ? right.constrain(constraint, causeExpression) : right;
+            if (constrainedLeft instanceof NoMatch || constrainedRight instanceof NoMatch) {
+                return notMatchingBecause(() -> "Cannot constrain concatenated matches with " + constraint);
+            }
+            return matchRange.constrainIfPossible(constraint)
+                    .<Match>map(range -> new ConcatMatch(expression, fullString, constrainedLeft, constrainedRight, range))
+                    .orElseGet(() -> notMatchingBecause(() -> "Cannot constrain " + appliedRange() + " with " + constraint));
         }
 
         @Override
-        public Stream<Map.Entry<String, RangeFlex.Applied>> givenBindings() {
+        Stream<Map.Entry<String, RangeFlex.Applied>> givenBindings() {
             return Stream.concat(left.givenBindings(), right.givenBindings());
         }
 
@@ -564,95 +653,72 @@ public sealed abstract class Match {
         }
 
         private Optional<Binding> concat(Binding leftBinding, Binding rightBinding) {
-            return Result.ofTry(() -> RangeFlex.concat((leftBinding.matchRange()), rightBinding.matchRange()))
-                    .ifSuccess()
+            return RangeFlex.concatIfPossible(leftBinding.matchRange(), rightBinding.matchRange())
                     .map(concatRange -> Binding.combine(this, concatRange.combined(), leftBinding, rightBinding));
         }
 
         @Override
-        public Score scoreObject() {
+        Score computeScore() {
             return left.scoreObject().times(right.scoreObject(), "concatenated");
         }
 
+        @Override
+        public double maxScore() {
+            return left.maxScore() * right.maxScore();
+        }
+
         @Override
         public String toString() {
             return getClass().getSimpleName() + "[" + left.getClass().getSimpleName() + ", " + right.getClass().getSimpleName() + "]";
         }
     }
 
+    /**
+     * The score of a match. Its value is computed eagerly, while its reason is only built when asked for.
+     */
     public interface Score {
         double value();
 
         String reason();
 
-        private static String asString(Score score) {
-            return score.value() + "[" + score.reason() + "]";
-        }
-
         static Score base(String reason) {
             return Score.of(1.0, reason);
         }
 
         static Score of(double factor, String reason) {
-            return new Score() {
-                @Override
-                public double value() {
-                    return factor;
-                }
-
-                @Override
-                public String reason() {
-                    return reason;
-                }
+            return new ExplainedScore(factor, () -> reason);
+        }
 
-                @Override
-                public String toString() {
-                    return asString(this);
-                }
-            };
+        static Score of(double factor, Supplier<String> reason) {
+            return new ExplainedScore(factor, reason);
         }
 
         default Score times(double factor, String reason) {
-            Score parent = this;
-            return new Score() {
-                @Override
-                public double value() {
-                    return parent.value() * factor;
-                }
-
-                @Override
-                public String reason() {
-                    return reason;
-                }
-
-                @Override
-                public String toString() {
-                    return asString(this);
-                }
+            return times(factor, () -> reason);
+        }
 
-            };
+        default Score times(double factor, Supplier<String> reason) {
+            return new ExplainedScore(value() * factor, reason);
         }
 
         default Score times(Score right, String reason) {
-            Score left = this;
-            return new Score() {
-                @Override
-                public double value() {
-                    return left.value() * right.value();
-                }
-
-                @Override
-                public String reason() {
-                    return reason;
-                }
+            return times(right.value(), () -> reason);
+        }
 
+        default Score times(Score right, Supplier<String> reason) {
+            return times(right.value(), reason);
+        }
+    }
 
-                @Override
-                public String toString() {
-                    return asString(this);
-                }
+    private record ExplainedScore(double value, Supplier<String> explanation) implements Score {
+        @Override
+        public String reason() {
+            return explanation.get();
+        }
 
-            };
+        @Override
+        public String toString() {
+            return value + "[" + reason() + "]";
         }
     }
 
@@ -8,6 +8,7 @@ import java.util.Iterator;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public sealed interface RangeFlex {
 
@@ -91,15 +92,29 @@ public sealed interface RangeFlex {
         var leftConstrained = left.tryConstrain(Constraint.succeedBy(right))
                 .orElseThrow(exc -> new IllegalArgumentException("Cannot concatenate flexes %s and %s: %s".formatted(left, right, exc.getMessage()), exc));
         var rightConstrained = right.constrain(Constraint.precedeBy(left));
+        return concatConstrained(leftConstrained, rightConstrained)
+                .orElseThrow(() -> new IllegalArgumentException("Cannot concatenate flexes %s and %s: incompatible lengths %s and %s".formatted(
+                        left, right, leftConstrained.lengthString(), rightConstrained.lengthString())));
+    }
+
+    /**
+     * Concatenates the flexes like {@link #concat(RangeFlex, RangeFlex)}, or returns empty without throwing when they cannot be concatenated.
+     */
+    static Optional<ConcatResult> concatIfPossible(RangeFlex left, RangeFlex right) {
+        return left.constrainIfPossible(Constraint.succeedBy(right))
+                .flatMap(leftConstrained -> right.constrainIfPossible(Constraint.precedeBy(left))
+                        .flatMap(rightConstrained -> concatConstrained(leftConstrained, rightConstrained)));
+    }
+
+    private static Optional<ConcatResult> concatConstrained(RangeFlex leftConstrained, RangeFlex rightConstrained) {
         var minLength = leftConstrained.minLength().map(minLeft -> minLeft + rightConstrained.minLength().orElse(0))
                 .orElse(rightConstrained.minLength().orElse(null));
 
         var maxLength = leftConstrained.maxLength().flatMap(maxLeft -> rightConstrained.maxLength().map(maxRight -> maxLeft + maxRight))
                 .orElse(null);
 
-
-        RangeFlex combined = new RangeFlex.Simple(leftConstrained.start(), rightConstrained.end(), minLength, maxLength);
-        return new ConcatResult(leftConstrained, rightConstrained, combined);
+        return Simple.ofValid(leftConstrained.start(), rightConstrained.end(), minLength, maxLength)
+                .map(combined -> new ConcatResult(leftConstrained, rightConstrained, combined));
     }
 
     IntRange start();
@@ -112,6 +127,12 @@ public sealed interface RangeFlex {
 
     RangeFlex constrain(Constraint constraint);
 
+    /**
+     * Applies the constraint like {@link #constrain(Constraint)}, but returns empty instead of throwing when the constraint cannot be satisfied.
+     * Only {@link Constraint.Satisfying} and {@link Constraint.Mapping} constraints may still throw internally.
+     */
+    Optional<RangeFlex> constrainIfPossible(Constraint constraint);
+
     default Result<? extends RangeFlex, RuntimeException> tryConstrain(Constraint constraint) {
         return Result.ofTry(() -> constrain(constraint));
     }
@@ -231,7 +252,20 @@ public sealed interface RangeFlex {
         public Simple {
             Objects.requireNonNull(start, "start");
             Objects.requireNonNull(end, "end");
-            verifyLengthConstraints(start, end, minLengthValue, maxLengthValue).orElseThrow();
+            if (!hasValidLengths(start, end, minLengthValue, maxLengthValue)) {
+                throw invalidLengths(start, end, minLengthValue, maxLengthValue);
+            }
+        }
+
+        private static Optional<RangeFlex> ofValid(IntRange start, IntRange end, Integer minLength, Integer maxLength) {
+            return ofValid(start, end, minLength, maxLength, Rejection.SILENT);
+        }
+
+        private static Optional<RangeFlex> ofValid(IntRange start, IntRange end, Integer minLength, Integer maxLength, Rejection rejection) {
+            if (hasValidLengths(start, end, minLength, maxLength)) {
+                return Optional.of(new Simple(start, end, minLength, maxLength));
+            }
+            return rejection.reject(() -> invalidLengths(start, end, minLength, maxLength));
         }
 
         Simple(IntRange start, IntRange end) {
@@ -248,24 +282,67 @@ public sealed interface RangeFlex {
             return Optional.ofNullable(maxLengthValue);
         }
 
+        @Override
         public RangeFlex constrain(Constraint constraint) {
+            return constrain(this, constraint, Rejection.THROWING).orElseThrow();
+        }
+
+        @Override
+        public Optional<RangeFlex> constrainIfPossible(Constraint constraint) {
+            return constrain(this, constraint, Rejection.SILENT);
+        }
+
+        // Both constrain and constrainIfPossible apply constraints here, and only differ in how they reject them
+        private static Optional<RangeFlex> constrain(RangeFlex range, Constraint constraint, Rejection rejection) {
+            return switch (range) {
+                case Simple simple -> simple.constrain(constraint, rejection);
+            };
+        }
+
+        private Optional<RangeFlex> constrain(Constraint constraint, Rejection rejection) {
             return switch (constraint) {
-                case Constraint.MinLength(int min) -> constrainMinLength(min);
-                case Constraint.MaxLength(int max) -> constrainMaxLength(max);
-                case Constraint.LimitLeft(int left) -> limitLeft(left);
-                case Constraint.LimitRight(int right) -> limitRight(right);
-                case Constraint.RangeLimit(RangeFlex range) -> constrainToRange(range);
-                case Constraint.FixedRange _ -> toFixedRange();
-                case Constraint.FixPrefix _ -> fixPrefix();
-                case Constraint.FixSuffix _ -> fixSuffix();
-                case Constraint.PrecedeBy(var predecessor) -> constrainWithPredecessor(predecessor);
-                case Constraint.SucceedBy(var successor) -> constrainWithSuccessor(successor);
-                case Constraint.Mapping(var operator) -> operator.apply(this);
-                case Constraint.Satisfying(var verification) -> verify(this, verification);
-                case Constraint.And(var one, var two) -> constrain(one).constrain(two);
+                case Constraint.MinLength(int min) ->
+                        ofValid(start, end, (this.minLengthValue == null) ? min : Math.max(this.minLengthValue, min), this.maxLengthValue, rejection);
+                case Constraint.MaxLength(int max) ->
+                        ofValid(start, end, this.minLengthValue, (this.maxLengthValue == null) ? max : Math.min(this.maxLengthValue, max), rejection);
+                case Constraint.LimitLeft(int left) -> limit(left, Integer.MAX_VALUE, rejection);
+                case Constraint.LimitRight(int right) -> limit(Integer.MIN_VALUE, right + 1, rejection);
+                case Constraint.RangeLimit(RangeFlex range) -> limit(range.start().from(), range.end().exclusiveTo(), rejection);
+                case Constraint.FixedRange _ -> Optional.of(toFixedRange());
+                case Constraint.FixPrefix _ -> Optional.of(fixPrefix());
+                case Constraint.FixSuffix _ -> Optional.of(fixSuffix());
+                case Constraint.PrecedeBy(var predecessor) -> constrainWithPredecessor(predecessor, rejection);
+                case Constraint.SucceedBy(var successor) -> constrainWithSuccessor(successor, rejection);
+                case Constraint.Mapping(var operator) -> attempt(() -> operator.apply(this), rejection);
+                case Constraint.Satisfying(var verification) -> attempt(() -> verify(this, verification), rejection);
+                case Constraint.And(var one, var two) -> constrain(one, rejection).flatMap(range -> constrain(range, two, rejection));
             };
         }
 
+        private static Optional<RangeFlex> attempt(Supplier<RangeFlex> constrained, Rejection rejection) {
+            return switch (Result.<RangeFlex, RuntimeException>ofTry(constrained)) {
+                case Result.Success(var range) -> Optional.of(range);
+                case Result.Failure(var exception) -> rejection.reject(() -> exception);
+            };
+        }
+
+        private Optional<RangeFlex> limit(int left, int exclusiveRight, Rejection rejection) {
+            return limit(left, exclusiveRight, () -> "Range %s cannot be limited to [%s - %s]".formatted(this, left, exclusiveRight - 1), rejection);
+        }
+
+        // Same as limiting left and then right, which only fails when the final ranges are invalid
+        private Optional<RangeFlex> limit(int left, int exclusiveRight, Supplier<String> invalidRange, Rejection rejection) {
+            int startFrom = Math.max(start.from(), left);
+            int startTo = Math.min(start.exclusiveTo(), exclusiveRight);
+            int endFrom = Math.max(end.from(), left);
+            int endTo = Math.min(end.exclusiveTo(), exclusiveRight);
+            if (IntRange.isValid(startFrom, startTo) && IntRange.isValid(endFrom, endTo)) {
+                return ofValid(IntRange.of(startFrom, startTo), IntRange.of(endFrom, endTo), minLengthValue, maxLengthValue, rejection);
+            } else {
+                return rejection.reject(() -> new IllegalArgumentException(invalidRange.get()));
+            }
+        }
+
         private RangeFlex toFixedRange() {
             int from = start().from();
             int to = end.to();
@@ -282,66 +359,34 @@ public sealed interface RangeFlex {
             return new Simple(start, IntRange.of(to + 1, to + 1));
         }
 
-        private RangeFlex constrainMinLength(Integer minLength) {
-            return new Simple(start, end, (this.minLengthValue == null) ? minLength : Math.max(this.minLengthValue, minLength), this.maxLengthValue);
-        }
-
-        private Simple constrainMaxLength(int maxLength) {
-            return new Simple(start, end, this.minLengthValue, (this.maxLengthValue == null) ? maxLength : Math.min(this.maxLengthValue, maxLength));
-        }
-
-        private RangeFlex limitLeft(int limit) {
-            IntRange limitStart = start().limitLeft(limit);
-            IntRange limitEnd = end().limitLeft(limit);
-            return new RangeFlex.Simple(limitStart, limitEnd, minLengthValue(), maxLengthValue());
+        private Optional<RangeFlex> constrainWithSuccessor(RangeFlex successor, Rejection rejection) {
+            return limit(Integer.MIN_VALUE, successor.start().exclusiveTo(),
+                         () -> "incompatible overlap at [%s - %s]".formatted(successor.start().to() + 1, this.end().from() - 1),
+                         rejection)
+                    .flatMap(range -> (range.end().exclusiveTo() >= successor.start().from())
+                            ? Optional.of(range)
+                            : rejection.reject(() -> new IllegalArgumentException("gap at [%s - %s]".formatted(range.end().to() + 1, successor.start().from() - 1))))
+                    .flatMap(range -> range.maxLength()
+                            .map(maxLength -> constrain(range, Constraint.limitLeft(successor.start().from() - maxLength), rejection))
+                            .orElse(Optional.of(range)));
         }
 
-        private RangeFlex limitRight(int limit) {
-            IntRange limitStart = start().limitRight(limit);
-            IntRange limitEnd = end().limitRight(limit);
-            return new RangeFlex.Simple(limitStart, limitEnd, minLengthValue(), maxLengthValue());
-        }
-
-        private RangeFlex constrainToRange(RangeFlex constraint) {
-            int left = constraint.start().from();
-            int right = constraint.end().to();
-            IntRange limitStart = start().limitLeft(left).limitRight(right);
-            IntRange limitEnd = end().limitLeft(left).limitRight(right);
-            return new RangeFlex.Simple(limitStart, limitEnd, minLengthValue(), maxLengthValue());
-        }
-
-        private RangeFlex constrainWithSuccessor(RangeFlex successor) {
-            return tryConstrain(Constraint.limitRight(successor.start().to()))
-                    .orElseThrow(cause -> {
-                        // TODO: this could be nicer
-                        if (cause.getStackTrace()[0].getClassName().equals(IntRange.class.getName())) {
-                            return new IllegalArgumentException("incompatible overlap at [%s - %s]".formatted(successor.start().to() + 1, this.end().from() - 1), cause);
-                        }
-                        return cause;
-
-                    })
-                    .tryConstrain(Constraint.satisfying(range -> {
-                        if (range.end().exclusiveTo() < successor.start().from()) {
-                            throw new IllegalArgumentException("gap at [%s - %s]".formatted(range.end().to() + 1, successor.start().from() - 1));
-                        }
-                    }))
-                    .orElseThrow()
-                    .tryConstrain(Constraint.mapping(range -> range.maxLength()
-                            .map(maxLength -> range.constrain(Constraint.limitLeft(successor.start().from() - maxLength)))
-                            .orElse(range)))
-                    .orElseThrow();
-        }
-
-        private RangeFlex constrainWithPredecessor(RangeFlex predecessor) {
+        private Optional<RangeFlex> constrainWithPredecessor(RangeFlex predecessor, Rejection rejection) {
             // TODO Compared with constrainWithSuccessor it feels like some tests are missing here
+            return limit(predecessor.end().from(), Integer.MAX_VALUE, rejection)
+                    .flatMap(range -> range.maxLength()
+                            .map(maxLength -> constrain(range, Constraint.limitRight(predecessor.end().exclusiveTo() + maxLength - 1), rejection))
+                            .orElse(Optional.of(range)));
+        }
 
+        // How a constraint that cannot be satisfied is rejected: by throwing the failure, or by returning empty without creating it
+        private interface Rejection {
+            Rejection THROWING = failure -> {
+                throw failure.get();
+            };
+            Rejection SILENT = _ -> Optional.empty();
 
-            return constrain(
-                    Constraint.limitLeft(predecessor.end().from()).and(
-                            Constraint.mapping(range -> range.maxLength()
-                                    .map(maxLength -> range.constrain(Constraint.limitRight(predecessor.end().exclusiveTo() + maxLength - 1)))
-                                    .orElse(range)
-                            )));
+            Optional<RangeFlex> reject(Supplier<? extends RuntimeException> failure);
         }
 
         @Override
@@ -351,17 +396,22 @@ public sealed interface RangeFlex {
 
     }
 
-    private static Result<Void, RuntimeException> verifyLengthConstraints(IntRange start, IntRange end, Integer minLength, Integer maxLength) {
+    private static boolean hasValidLengths(IntRange start, IntRange end, Integer minLength, Integer maxLength) {
+        return (minLength == null || minLength <= end.exclusiveTo() - start.from())
+               && (maxLength == null || maxLength >= end.from() - start.exclusiveTo())
+               && (minLength == null || maxLength == null || minLength <= maxLength);
+    }
+
+    // The failure of lengths that are not valid according to hasValidLengths
+    private static IllegalArgumentException invalidLengths(IntRange start, IntRange end, Integer minLength, Integer maxLength) {
         int lowestLength = end.from() - start.exclusiveTo();
         int highestLength = end.exclusiveTo() - start.from();
         if (minLength != null && minLength > highestLength) {
-            return Result.ofFailure(new IllegalArgumentException("Range %s with highest length of %d is strictly shorter than the minimum length of %d".formatted(RangeFlex.toString(start, end), highestLength, minLength)));
+            return new IllegalArgumentException("Range %s with highest length of %d is strictly shorter than the minimum length of %d".formatted(RangeFlex.toString(start, end), highestLength, minLength));
         } else if (maxLength != null && maxLength < lowestLength) {
-            return Result.ofFailure(new IllegalArgumentException("Range %s with lowest length of %d is strictly longer than the maximum length of %d".formatted(RangeFlex.toString(start, end), lowestLength, maxLength)));
-        } else if (minLength != null && maxLength != null && minLength > maxLength) {
-            return Result.ofFailure(new IllegalArgumentException("Range %s cannot have length constraints where minimum length of %d is greater than maximum length of %d".formatted(RangeFlex.toString(start, end), minLength, maxLength)));
+            return new IllegalArgumentException("Range %s with lowest length of %d is strictly longer than the maximum length of %d".formatted(RangeFlex.toString(start, end), lowestLength, maxLength));
         } else {
-            return Result.ofVoid();
+            return new IllegalArgumentException("Range %s cannot have length constraints where minimum length of %d is greater than maximum length of %d".formatted(RangeFlex.toString(start, end), minLength, maxLength));
         }
     }
 
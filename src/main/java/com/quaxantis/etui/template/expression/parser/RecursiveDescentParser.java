@@ -0,0 +1,180 @@
+package com.quaxantis.etui.template.expression.parser;
+
+import com.quaxantis.etui.template.expression.parser.SimpleParser.Language;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static com.quaxantis.etui.template.expression.parser.ParserStates.unexpectedToken;
+
+/**
+ * Parses the grammar of {@link ParserStates} by recursive descent on a single token of lookahead.
+ * <p>
+ * Produces the same expressions as the state machine, without allocating a state per grammar rule.
+ * All infix operators share one precedence and associate to the right.
+ */
+final class RecursiveDescentParser<E> {
+    private static final Token.EOF EOF = new Token.EOF();
+
+    private final Language<E> language;
+    @SuppressWarnings("rawtypes")
+    private final Collection<Language.Group> expressionGroups;
+    @SuppressWarnings("rawtypes")
+    private final Collection<Language.Group> literalGroups;
+    @SuppressWarnings("rawtypes")
+    private final Collection<Language.Group> subExpressions;
+
+    RecursiveDescentParser(Language<E> language) {
+        this.language = language;
+        this.expressionGroups = Set.copyOf(language.expressionGroups());
+        this.literalGroups = Set.copyOf(language.literalGroups());
+        this.subExpressions = Set.copyOf(language.subExpressions());
+    }
+
+    E parse(Iterator<? extends Token<E>> tokens) {
+        return new Cursor(tokens).root();
+    }
+
+    private final class Cursor {
+        private final Iterator<? extends Token<E>> tokens;
+        private Token<E> lookahead;
+
+        private Cursor(Iterator<? extends Token<E>> tokens) {
+            this.tokens = tokens;
+        }
+
+        @Nonnull
+        private Token<E> peek() {
+            if (this.lookahead == null) {
+                this.lookahead = this.tokens.hasNext() ? this.tokens.next() : EOF.anyCast();
+            }
+            return this.lookahead;
+        }
+
+        @Nonnull
+        private Token<E> next() {
+            Token<E> token = peek();
+            this.lookahead = null;
+            return token;
+        }
+
+        // Root = Text EOF
+        private E root() {
+            List<E> expressions = new ArrayList<>();
+            while (true) {
+                Token<E> token = next();
+                if (token instanceof Token.EOF()) {
+                    return concat(expressions);
+                }
+                text(token, expressions);
+            }
+        }
+
+        // String = '"' Text '"'
+        private E string(Language.GroupStart<?> startOperator) {
+            List<E> expressions = new ArrayList<>();
+            while (true) {
+                Token<E> token = next();
+                if (isEnd(token, startOperator)) {
+                    return concat(expressions);
+                }
+                text(token, expressions);
+            }
+        }
+
+        // Text = <any character>+ | Group(expression)
+        private void text(Token<E> token, List<E> expressions) {
+            switch (token) {
+                case Token.Operator(Language.GroupStart<?> op, _) when op.matchesAny(expressionGroups) -> {
+                    E expression = group(op);
+                    if (expression != null) {
+                        expressions.add(expression);
+                    }
+                }
+                case Token.Operator(_, var delimiter) -> expressions.add(language.createLiteral(delimiter));
+                case Token.AlphaNumeric(var text) -> expressions.add(language.createLiteral(text));
+                case Token.Whitespace(var whitespace) -> expressions.add(language.createLiteral(whitespace));
+                case Token.Other(var other) -> expressions.add(language.createLiteral(other));
+                case Token.EOF() -> throw unexpectedToken(token, "text");
+            }
+        }
+
+        // Group = GroupStart Expr GroupEnd
+        //   GroupEnd = [Whitespace] <group end operator>
+        // Returns null for an empty group
+        @Nullable
+        private E group(Language.GroupStart<?> startOperator) {
+            E expression = expression(startOperator);
+            if (expression == null) {
+                return null;
+            }
+            while (true) {
+                Token<E> token = next();
+                if (isEnd(token, startOperator)) {
+                    return startOperator.group().isExtensible() ? extensible(expression) : expression;
+                } else if (!(token instanceof Token.Whitespace)) {
+                    throw unexpectedToken(token, startOperator.group().endDelimiter());
+                }
+            }
+        }
+
+        // Expr = [Whitespace] (Identifier | String | Group)
+        // Within a group, returns null when the group ends before an expression
+        @Nullable
+        private E expression(@Nullable Language.GroupStart<?> groupStart) {
+            while (true) {
+                Token<E> token = next();
+                if (groupStart != null && isEnd(token, groupStart)) {
+                    return null;
+                }
+                switch (token) {
+                    case Token.Whitespace(_) -> {
+                    }
+                    case Token.AlphaNumeric(var identifier) -> {
+                        return extensible(language.createIdentifier(identifier));
+                    }
+                    case Token.Operator(Language.GroupStart<?> op, _) when op.matchesAny(literalGroups) -> {
+                        return extensible(string(op));
+                    }
+                    case Token.Operator(Language.GroupStart<?> op, _) when op.matchesAny(subExpressions) -> {
+                        E expression = group(op);
+                        if (expression != null) {
+                            return expression;
+                        }
+                    }
+                    case Token.Operator(_, _), Token.Other(_), Token.EOF() ->
+                            throw unexpectedToken(token, "expression");
+                }
+            }
+        }
+
+        // Expr = Expr [Whitespace] [<infix operator> Expr]
+        private E extensible(E expression) {
+            while (true) {
+                switch (peek()) {
+                    case Token.Whitespace(_) -> next();
+                    case Token.Operator<E>(Language.Infix<E> infix, _) -> {
+                        next();
+                        expression = infix.combine(expression, expression(null));
+                    }
+                    default -> {
+                        return expression;
+                    }
+                }
+            }
+        }
+
+        private boolean isEnd(Token<E> token, Language.GroupStart<?> startOperator) {
+            return token instanceof Token.Operator(Language.GroupEnd<?> op, _) && op.matches(startOperator);
+        }
+
+        private E concat(List<E> expressions) {
+            return (expressions.size() == 1) ? expressions.getFirst() : language.concatenate(expressions);
+        }
+    }
+}
@@ -12,15 +12,33 @@ public class SimpleParser<Expression> {
     private static final Token.EOF EOF = new Token.EOF();
 
     private final Language<Expression> language;
+    private final Mode mode;
     private final Tokenizer<Expression> tokenizer;
+    private final RecursiveDescentParser<Expression> descentParser;
 
     public SimpleParser(Language<Expression> language) {
+        this(language, Mode.RECURSIVE_DESCENT);
+    }
+
+    public SimpleParser(Language<Expression> language, Mode mode) {
         this.language = language;
+        this.mode = mode;
         this.tokenizer = new Tokenizer<>(language);
+        this.descentParser = new RecursiveDescentParser<>(language);
     }
 
     public Expression parse(String string) {
-        return new Context<>(language, tokenizer.tokenize(string)).process();
+        return switch (mode) {
+            case STATE_MACHINE -> new Context<>(language, tokenizer.tokenize(string)).process();
+            case RECURSIVE_DESCENT -> descentParser.parse(tokenizer.tokenize(string));
+        };
+    }
+
+    public enum Mode {
+        // Drives a stack of parser states, logging every transition at debug level
+        STATE_MACHINE,
+        // Descends the grammar directly, which is considerably faster for bulk parsing
+        RECURSIVE_DESCENT
     }
 
     private static class Context<Expression> {
@@ -44,18 +62,24 @@ public class SimpleParser<Expression> {
 
         private void push(@Nonnull ParserState<Expression> state) {
             stack.push(state);
-            log.debug("Push {}", stack);
+            if (log.isDebugEnabled()) {
+                log.debug("Push {}", stack);
+            }
         }
 
         private void pop() {
             Object removed = stack.pop();
-            log.debug("Pop {} <-- {}", removed, stack);
+            if (log.isDebugEnabled()) {
+                log.debug("Pop {} <-- {}", removed, stack);
+            }
         }
 
         @Nonnull
         private ParserAction<Expression> popWith(@Nonnull Expression expression) {
             pop();
-            log.debug("Offering {} to {}", expression, peek());
+            if (log.isDebugEnabled()) {
+                log.debug("Offering {} to {}", expression, peek());
+            }
             return peek().offer(expression);
         }
 
@@ -70,7 +94,9 @@ public class SimpleParser<Expression> {
 
         @Nonnull
         private ParserAction<Expression> offer(@Nonnull Token<Expression> token) {
-            logToken.debug("Offering {} to {}", token, peek());
+            if (logToken.isDebugEnabled()) {
+                logToken.debug("Offering {} to {}", token, peek());
+            }
             return peek().offer(token);
         }
 
@@ -2,106 +2,214 @@ package com.quaxantis.etui.template.expression.parser;
 
 import com.quaxantis.etui.template.expression.parser.SimpleParser.Language.Op;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.function.IntPredicate;
+import java.util.NoSuchElementException;
 
+/**
+ * Splits a string in tokens of alphanumeric characters, whitespace, operators and other characters.
+ * <p>
+ * Tokens are produced on demand while parsing.
+ * Operators are recognized with a trie of the operator delimiters,
+ * so only the text of the tokens themselves is copied from the string.
+ */
 class Tokenizer<E> {
 
-    private final Map<String, Op<E>> operators;
+    private final OperatorTrie<E> operators;
 
     Tokenizer(SimpleParser.Language<E> language) {
         this(language.delimiterToOperatorMap());
     }
 
     Tokenizer(Map<String, Op<E>> operators) {
-        this.operators = operators;
+        this.operators = OperatorTrie.of(operators);
     }
 
     public Iterator<Token<E>> tokenize(String string) {
-        var list = new ArrayList<Token<E>>();
-        CharType currentCharType = null;
-        int pos = 0;
-        for (int i = 0; i < string.length(); i++) {
-            char c = string.charAt(i);
-            CharType charType = CharType.of(c);
+        return new Tokens(string);
+    }
+
+    private final class Tokens implements Iterator<Token<E>> {
+        private final String string;
+        private CharType currentCharType = null;
+        private int pos = 0;
+        private int i = 0;
+        // At most two tokens are produced per character
+        private Token<E> next;
+        private Token<E> afterNext;
+
+        private Tokens(String string) {
+            this.string = string;
+        }
+
+        @Override
+        public boolean hasNext() {
+            fill();
+            return this.next != null;
+        }
+
+        @Override
+        public Token<E> next() {
+            fill();
+            if (this.next == null) {
+                throw new NoSuchElementException();
+            }
+            Token<E> token = this.next;
+            this.next = this.afterNext;
+            this.afterNext = null;
+            return token;
+        }
+
+        private void fill() {
+            while (this.next == null && this.i <= this.string.length()) {
+                step();
+            }
+        }
+
+        private void step() {
+            String string = this.string;
+            int i = this.i++;
+            if (i == string.length()) {
+                if (pos < string.length()) {
+                    add(createToken(currentCharType, pos, string.length()));
+                }
+                return;
+            }
+
+            CharType charType = CharType.of(string.charAt(i));
             if (charType != currentCharType) {
                 if (currentCharType != null) {
-                    list.add(createToken(currentCharType, string.substring(pos, i)));
+                    add(createToken(currentCharType, pos, i));
                     pos = i;
                 }
                 currentCharType = charType;
             } else if (currentCharType == CharType.OTHER) {
                 // If we start with an operator
-                if (!operators.containsKey(string.substring(pos, i + 1))
-                    && operators.containsKey(string.substring(pos, i))) {
-                    String token = string.substring(pos, i);
-                    list.add(new Token.Operator<E>(operators.get(token), token));
+                if (!operators.contains(string, pos, i + 1)
+                    && operators.contains(string, pos, i)) {
+                    add(operatorToken(pos, i));
                     pos = i;
                 } else {
                     // If we end with an operator
-                    int opl = (i > 1 && operators.containsKey(string.substring(i - 2, i))) ? 2
-                            : (operators.containsKey(string.substring(i - 1, i))) ? 1
+                    int opl = (i > 1 && operators.contains(string, i - 2, i)) ? 2
+                            : (operators.contains(string, i - 1, i)) ? 1
                             : 0;
                     if (opl > 0) {
-                        String other = string.substring(pos, i - opl);
-                        list.add(new Token.Other(other).anyCast());
-                        String op = string.substring(i - opl, i);
-                        list.add(new Token.Operator<>(operators.get(op), op));
+                        add(new Token.Other(string.substring(pos, i - opl)).anyCast());
+                        add(operatorToken(i - opl, i));
                         pos = i;
-                    } else if (pos < i - 1 && operators.containsKey(string.substring(i - 1, i + 1))) {
-                        String other = string.substring(pos, i - 1);
-                        list.add(new Token.Other(other).anyCast());
+                    } else if (pos < i - 1 && operators.contains(string, i - 1, i + 1)) {
+                        add(new Token.Other(string.substring(pos, i - 1)).anyCast());
                         pos = i - 1;
                     }
                 }
             }
         }
-        if (pos < string.length()) {
-            list.add(createToken(currentCharType, string.substring(pos)));
+
+        private void add(Token<E> token) {
+            if (this.next == null) {
+                this.next = token;
+            } else {
+                this.afterNext = token;
+            }
         }
-        return list.iterator();
-    }
 
-    private Token<E> createToken(CharType charType, String tokenString) {
-        if (charType == CharType.OTHER && operators.containsKey(tokenString)) {
-            return new Token.Operator<>(operators.get(tokenString), tokenString);
-        } else {
-            return charType.asToken(tokenString);
+        private Token<E> createToken(CharType charType, int start, int end) {
+            if (charType == CharType.OTHER && operators.contains(string, start, end)) {
+                return operatorToken(start, end);
+            } else {
+                return charType.asToken(string.substring(start, end));
+            }
+        }
+
+        private Token<E> operatorToken(int start, int end) {
+            OperatorTrie<E> node = operators.find(string, start, end);
+            return new Token.Operator<>(node.operator, node.delimiter);
         }
     }
 
-    private enum CharType {
-        ALPHANUMERIC(Character::isLetterOrDigit, Token.AlphaNumeric::new),
-        WHITESPACE(Character::isWhitespace, Token.Whitespace::new),
-        OTHER(ignored -> true, Token.Other::new);
+    private static final class OperatorTrie<E> {
+        private char[] keys = new char[0];
+        private OperatorTrie<E>[] children = newArray(0);
+        private Op<E> operator;
+        private String delimiter;
 
-        private final IntPredicate predicate;
-        private final Function<String, Token<Object>> tokenCreator;
+        static <E> OperatorTrie<E> of(Map<String, Op<E>> operators) {
+            OperatorTrie<E> root = new OperatorTrie<>();
+            operators.forEach((delimiter, operator) -> {
+                OperatorTrie<E> node = root;
+                for (int i = 0; i < delimiter.length(); i++) {
+                    node = node.childOrCreate(delimiter.charAt(i));
+                }
+                node.operator = operator;
+                node.delimiter = delimiter;
+            });
+            return root;
+        }
 
-        CharType(IntPredicate predicate, Function<String, Token<Object>> tokenCreator) {
-            this.predicate = predicate;
-            this.tokenCreator = tokenCreator;
+        boolean contains(CharSequence string, int start, int end) {
+            OperatorTrie<E> node = find(string, start, end);
+            return node != null && node.operator != null;
         }
 
-        <E> Token<E> asToken(String token) {
-            return tokenCreator.apply(token).anyCast();
+        OperatorTrie<E> find(CharSequence string, int start, int end) {
+            OperatorTrie<E> node = this;
+            for (int i = start; i < end && node != null; i++) {
+                node = node.child(string.charAt(i));
+            }
+            return node;
         }
 
-        public static CharType of(char c) {
-            for (CharType charType : CharType.values()) {
-                if (charType.predicate.test(c)) {
-                    return charType;
+        private OperatorTrie<E> child(char c) {
+            for (int i = 0; i < this.keys.length; i++) {
+                if (this.keys[i] == c) {
+                    return this.children[i];
                 }
             }
-            return OTHER;
+            return null;
+        }
+
+        private OperatorTrie<E> childOrCreate(char c) {
+            OperatorTrie<E> child = child(c);
+            if (child == null) {
+                child = new OperatorTrie<>();
+                this.keys = Arrays.copyOf(this.keys, this.keys.length + 1);
+                this.children = Arrays.copyOf(this.children, this.children.length + 1);
+                this.keys[this.keys.length - 1] = c;
+                this.children[this.children.length - 1] = child;
+            }
+            return child;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <E> OperatorTrie<E>[] newArray(int length) {
+            return (OperatorTrie<E>[]) new OperatorTrie<?>[length];
         }
     }
 
-    public static void main(String[] args) {
-        System.out.println(Character.isLetterOrDigit('\''));
-        System.out.println(Character.isLetterOrDigit('\"'));
+    private enum CharType {
+        ALPHANUMERIC,
+        WHITESPACE,
+        OTHER;
+
+        <E> Token<E> asToken(String token) {
+            Token<Object> result = switch (this) {
+                case ALPHANUMERIC -> new Token.AlphaNumeric(token);
+                case WHITESPACE -> new Token.Whitespace(token);
+                case OTHER -> new Token.Other(token);
+            };
+            return result.anyCast();
+        }
+
+        public static CharType of(char c) {
+            if (Character.isLetterOrDigit(c)) {
+                return ALPHANUMERIC;
+            } else if (Character.isWhitespace(c)) {
+                return WHITESPACE;
+            } else {
+                return OTHER;
+            }
+        }
     }
 }
@@ -5,6 +5,7 @@ import com.quaxantis.etui.TagDescriptor;
 import com.quaxantis.etui.Template;
 import com.quaxantis.etui.tag.TagRepository;
 import com.quaxantis.etui.template.TagMapping;
+import com.quaxantis.etui.template.TemplateIndex;
 import com.quaxantis.etui.template.VariableSupport;
 import com.quaxantis.etui.template.expression.ExpressionEvaluator;
 import com.quaxantis.etui.template.expression.ExpressionEvaluatorFactory;
@@ -13,6 +14,8 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -23,14 +26,18 @@ public class ConfiguredTemplate implements Template {
     private final String source;
     private final List<Variable> variables;
     private final List<TagMapping> tagMappings;
+    private final Set<String> fileTypes;
+    private final TemplateIndex index;
     private final ExpressionEvaluator expressionEvaluator;
 
 
-    private ConfiguredTemplate(String name, String source, List<Variable> variables, List<TagMapping> tagMappings, ExpressionEvaluator expressionEvaluator) {
+    private ConfiguredTemplate(String name, String source, List<Variable> variables, List<TagMapping> tagMappings, Set<String> fileTypes, ExpressionEvaluator expressionEvaluator) {
         this.name = name;
         this.source = source;
         this.variables = variables;
         this.tagMappings = tagMappings;
+        this.fileTypes = fileTypes;
+        this.index = TemplateIndex.of(variables, tagMappings);
         this.expressionEvaluator = expressionEvaluator;
     }
 
@@ -51,14 +58,22 @@ public class ConfiguredTemplate implements Template {
 
     @Override
     public Collection<Tag> tags(Variable variable) {
-        // Variables are matched by identity - not by name only -
-        // because a variable with a name does not necessarily represent the same thing
-        // as a variable with the same name in another template
-        return tagMappings.stream()
-                .filter(mapping -> mapping.variable().map(variable::equals).orElse(false))
-                .map(TagMapping::tags)
-                .flatMap(List::stream)
-                .toList();
+        return this.index.tags(variable);
+    }
+
+    @Override
+    public List<Variable> variables(Tag tag) {
+        return this.index.variables(tag);
+    }
+
+    @Override
+    public Optional<Variable> variableByName(String name) {
+        return this.index.variableByName(name);
+    }
+
+    @Override
+    public Set<String> fileTypes() {
+        return this.fileTypes;
     }
 
     @Override
@@ -71,7 +86,7 @@ public class ConfiguredTemplate implements Template {
         var variablesByName = Stream.ofNullable(variables).flatMap(Collection::stream).collect(Collectors.toMap(Variable::name, Function.identity()));
         var tagMappings = tagMappings(template, variablesByName);
         var expressionEvaluator = createEvaluator(template, ExpressionEvaluator::of, ExpressionEvaluator.Context.of(variables));
-        return new ConfiguredTemplate(template.name(), source, variables, tagMappings, expressionEvaluator);
+        return new ConfiguredTemplate(template.name(), source, variables, tagMappings, template.fileTypes(), expressionEvaluator);
     }
 
     private static Variable enrich(XMLTemplateVariable xmlVariable, TagRepository tagRepository) {
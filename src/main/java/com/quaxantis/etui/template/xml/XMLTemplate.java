@@ -3,10 +3,13 @@ package com.quaxantis.etui.template.xml;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlElementWrapper;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
+import org.apache.commons.lang3.StringUtils;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.StringJoiner;
 
 public class XMLTemplate {
@@ -16,6 +19,8 @@ public class XMLTemplate {
     @JacksonXmlProperty(isAttribute = true)
     private String evaluator;
 
+    private Set<String> fileTypes = Set.of();
+
     @JsonProperty("variable")
     @JacksonXmlElementWrapper(useWrapping = false)
     private List<XMLTemplateVariable> variables;
@@ -32,6 +37,15 @@ public class XMLTemplate {
         return Optional.ofNullable(evaluator);
     }
 
+    public Set<String> fileTypes() {
+        return this.fileTypes;
+    }
+
+    @JacksonXmlProperty(isAttribute = true)
+    public void setFileTypes(String fileTypes) {
+        this.fileTypes = (StringUtils.isBlank(fileTypes)) ? Set.of() : Set.copyOf(Arrays.asList(StringUtils.split(fileTypes)));
+    }
+
     public List<XMLTemplateVariable> variables() {
         return (this.variables == null) ? Collections.emptyList() : Collections.unmodifiableList(this.variables);
     }
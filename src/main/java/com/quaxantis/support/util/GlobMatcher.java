@@ -2,11 +2,13 @@ package com.quaxantis.support.util;
 
 import com.quaxantis.support.ide.API;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
+import java.util.Arrays;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -24,12 +26,14 @@ public final class GlobMatcher {
         String[] chunks = pathPattern.split("[/\\\\]");
         boolean hasGlob = false;
         Path path = root;
-        for (String chunk : chunks) {
-            hasGlob = hasGlobPattern(chunk);
+        int globChunk = chunks.length;
+        for (int i = 0; i < chunks.length; i++) {
+            hasGlob = hasGlobPattern(chunks[i]);
             if (hasGlob) {
+                globChunk = i;
                 break;
             } else {
-                path = path.resolve(chunk);
+                path = path.resolve(chunks[i]);
             }
         }
 
@@ -37,12 +41,15 @@ public final class GlobMatcher {
             pathPattern = path + "/" + defaultPattern;
         }
         PathMatcher matcher = root.getFileSystem().getPathMatcher("glob:" + pathPattern.replaceAll("\\\\", "/"));
+        String[] segments = hasGlob
+                ? Arrays.copyOfRange(chunks, globChunk, chunks.length)
+                : defaultPattern.split("[/\\\\]");
 
         if (!hasGlob) {
             Path selfPath = path;
-            return new GlobMatcher(path, p -> selfPath.equals(p) || matcher.matches(p));
+            return new GlobMatcher(path, p -> selfPath.equals(p) || matcher.matches(p), segments);
         } else {
-            return new GlobMatcher(path, matcher);
+            return new GlobMatcher(path, matcher, segments);
         }
 
 
@@ -52,10 +59,31 @@ public final class GlobMatcher {
 
     private final Path path;
     private final PathMatcher matcher;
+    // Matchers for the names of the directories below the path, or null when no directories can be excluded
+    @Nullable
+    private final PathMatcher[] directoryMatchers;
 
-    private GlobMatcher(Path path, PathMatcher matcher) {
+    private GlobMatcher(Path path, PathMatcher matcher, String[] segments) {
         this.path = path;
         this.matcher = matcher;
+        this.directoryMatchers = directoryMatchers(path, segments);
+    }
+
+    @Nullable
+    private static PathMatcher[] directoryMatchers(Path path, String[] segments) {
+        // Alternatives may contain separators, so the pattern cannot be matched segment by segment
+        if (Arrays.stream(segments).anyMatch(segment -> segment.contains("{"))) {
+            return null;
+        }
+        // The last segment matches file names, so directories are only matched by the preceding segments
+        PathMatcher[] matchers = new PathMatcher[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i].contains("**")) {
+                return Arrays.copyOf(matchers, i + 1);
+            }
+            matchers[i] = path.getFileSystem().getPathMatcher("glob:" + segments[i]);
+        }
+        return Arrays.copyOf(matchers, Math.max(0, segments.length - 1));
     }
 
     static boolean hasGlobPattern(String filename) {
@@ -77,6 +105,32 @@ public final class GlobMatcher {
         }
     }
 
+    /**
+     * Returns whether the directory, which is the path or one of its descendants, may contain matching files.
+     */
+    @API
+    public boolean mayMatchBelow(Path directory) {
+        if (this.directoryMatchers == null) {
+            return true;
+        }
+        Path relative = this.path.relativize(directory);
+        int depth = relative.toString().isEmpty() ? 0 : relative.getNameCount();
+        for (int i = 0; i < depth; i++) {
+            if (i >= this.directoryMatchers.length) {
+                return false;
+            }
+            PathMatcher directoryMatcher = this.directoryMatchers[i];
+            if (directoryMatcher == null) {
+                // Any depth is matched from here on
+                return true;
+            }
+            if (!directoryMatcher.matches(relative.getName(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @API
     public Path path() {
         return path;
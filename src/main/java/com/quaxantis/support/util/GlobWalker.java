@@ -0,0 +1,158 @@
+package com.quaxantis.support.util;
+
+import com.quaxantis.support.ide.API;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Finds the files matching any of a number of globs in a single traversal.
+ * <p>
+ * Globs sharing a root directory, or with a root below that of another glob, are walked only once.
+ * Directories that cannot contain matching files are not entered.
+ * Directories are listed in parallel by a bounded number of threads,
+ * which pays off on network shares where listing a directory is slow.
+ */
+@API
+public final class GlobWalker {
+    private static final int DEFAULT_PARALLELISM = 4;
+
+    private final List<GlobMatcher> matchers;
+    private final List<Path> roots;
+
+    private GlobWalker(List<GlobMatcher> matchers, List<Path> roots) {
+        this.matchers = matchers;
+        this.roots = roots;
+    }
+
+    @API
+    public static GlobWalker of(Collection<GlobMatcher> matchers) {
+        List<Path> roots = matchers.stream()
+                .map(GlobMatcher::path)
+                .distinct()
+                .toList();
+        List<Path> topRoots = roots.stream()
+                .filter(root -> roots.stream().noneMatch(other -> !other.equals(root) && root.startsWith(other)))
+                .toList();
+        return new GlobWalker(List.copyOf(matchers), topRoots);
+    }
+
+    /**
+     * Returns the matching files - not directories - sorted by path.
+     */
+    @API
+    public List<Path> walk() {
+        return walk(DEFAULT_PARALLELISM);
+    }
+
+    @API
+    public List<Path> walk(int parallelism) {
+        return walk(parallelism, _ -> {
+        });
+    }
+
+    /**
+     * Returns the matching files like {@link #walk()}, and passes each directory to the visitor before listing it.
+     * The visitor is called from several threads.
+     */
+    @API
+    public List<Path> walk(Consumer<? super Path> directoryVisitor) {
+        return walk(DEFAULT_PARALLELISM, directoryVisitor);
+    }
+
+    @API
+    public List<Path> walk(int parallelism, Consumer<? super Path> directoryVisitor) {
+        Queue<Path> found = new ConcurrentLinkedQueue<>();
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            for (Path root : this.roots) {
+                pool.invoke(new Visit(root, found, directoryVisitor));
+            }
+        }
+        List<Path> result = new ArrayList<>(found);
+        result.sort(Comparator.naturalOrder());
+        return result;
+    }
+
+    private boolean matches(Path file) {
+        return this.matchers.stream()
+                .anyMatch(matcher -> file.startsWith(matcher.path()) && matcher.matches(file));
+    }
+
+    private boolean mayMatchBelow(Path directory) {
+        return this.matchers.stream()
+                .anyMatch(matcher -> {
+                    Path root = matcher.path();
+                    return root.startsWith(directory) || (directory.startsWith(root) && matcher.mayMatchBelow(directory));
+                });
+    }
+
+    private final class Visit extends RecursiveAction {
+        private final Path path;
+        private final Queue<Path> found;
+        private final Consumer<? super Path> directoryVisitor;
+
+        private Visit(Path path, Queue<Path> found, Consumer<? super Path> directoryVisitor) {
+            this.path = path;
+            this.found = found;
+            this.directoryVisitor = directoryVisitor;
+        }
+
+        @Override
+        protected void compute() {
+            BasicFileAttributes attributes = attributes(this.path);
+            if (attributes == null) {
+                return;
+            }
+            if (!attributes.isDirectory()) {
+                if (matches(this.path)) {
+                    this.found.add(this.path);
+                }
+                return;
+            }
+
+            this.directoryVisitor.accept(this.path);
+            List<Visit> subdirectories = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(this.path)) {
+                for (Path entry : entries) {
+                    BasicFileAttributes entryAttributes = attributes(entry);
+                    if (entryAttributes == null) {
+                        continue;
+                    }
+                    if (entryAttributes.isDirectory()) {
+                        if (mayMatchBelow(entry)) {
+                            subdirectories.add(new Visit(entry, this.found, this.directoryVisitor));
+                        }
+                    } else if (matches(entry)) {
+                        this.found.add(entry);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            invokeAll(subdirectories);
+        }
+
+        private static BasicFileAttributes attributes(Path path) {
+            try {
+                return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            } catch (IOException _) {
+                // Removed while walking, or a root that does not exist
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.quaxantis.support.util;
+
+import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded pool of canonical strings, held by weak references.
+ * <p>
+ * The pool is a fixed-size hash table without chaining: a string replaces any other string hashing to the same slot.
+ * Strings longer than the maximum length are never pooled.
+ */
+public final class StringPool {
+    private final AtomicReferenceArray<WeakReference<String>> slots;
+    private final int maxLength;
+
+    public StringPool(int capacity, int maxLength) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive but was " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Returns the pooled string equal to the given string, or pools and returns the given string itself.
+     */
+    public String intern(@Nullable String value) {
+        if (value == null || value.length() > this.maxLength) {
+            return value;
+        }
+
+        int hash = value.hashCode();
+        int index = ((hash ^ (hash >>> 16)) & 0x7fffffff) % this.slots.length();
+        WeakReference<String> reference = this.slots.get(index);
+        String pooled = (reference == null) ? null : reference.get();
+        if (value.equals(pooled)) {
+            return pooled;
+        }
+        this.slots.set(index, new WeakReference<>(value));
+        return value;
+    }
+}
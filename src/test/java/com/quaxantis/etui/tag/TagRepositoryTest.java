@@ -1,6 +1,9 @@
 package com.quaxantis.etui.tag;
 
+import com.quaxantis.etui.FileFormat;
 import com.quaxantis.etui.Tag;
+import com.quaxantis.etui.TagDescriptor;
+import com.quaxantis.etui.TagFamily;
 import com.quaxantis.etui.application.config.Configuration;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
@@ -14,13 +17,23 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.assertj.core.groups.Tuple.tuple;
 import static org.mockito.Mockito.*;
 
@@ -62,6 +75,47 @@ class TagRepositoryTest {
     }
 
 
+    @Test
+    @DisplayName("Returns tag families applicable to a file format")
+    void returnsTagFamiliesApplicableToFileFormat() {
+        var groupedFamilies = repository.getGroupedFamilies(new FileFormat("JPEG", "image/jpeg", "jpg"));
+
+        assertThat(groupedFamilies.values().stream().flatMap(List::stream))
+                .extracting("name")
+                .contains("dc", "jpeg")
+                .doesNotContain("png", "pdf");
+    }
+
+    @Test
+    @DisplayName("Returns tag families applicable to a file extension")
+    void returnsTagFamiliesApplicableToFileExtension() {
+        var groupedFamilies = repository.getGroupedFamilies(new FileFormat(null, null, "pdf"));
+
+        assertThat(groupedFamilies.values().stream().flatMap(List::stream))
+                .extracting("name")
+                .contains("dc", "pdf")
+                .doesNotContain("png", "jpeg");
+    }
+
+    @Test
+    @DisplayName("Returns tag families applicable to an alias of a file extension")
+    void returnsTagFamiliesApplicableToFileExtensionAlias() {
+        var groupedFamilies = repository.getGroupedFamilies(new FileFormat(null, null, "JPG"));
+
+        assertThat(groupedFamilies.values().stream().flatMap(List::stream))
+                .extracting("name")
+                .contains("dc", "jpeg")
+                .doesNotContain("png", "pdf");
+    }
+
+    @Test
+    @DisplayName("Returns all tag families for an unknown file format")
+    void returnsAllTagFamiliesForUnknownFileFormat() {
+        TagRepository.Cache cache = repository.cached();
+        assertThat(cache.getGroupedFamilies(FileFormat.UNKNOWN))
+                .isEqualTo(cache.getGroupedFamilies());
+    }
+
     @Test
     @DisplayName("Returns tags from a configured file")
     void returnsTagFamiliesFromConfiguredFile(@TempDir Path tempDir) throws Exception {
@@ -82,6 +136,188 @@ class TagRepositoryTest {
                 .contains(tuple("test-family", "test-group", "Test Family"));
     }
 
+    @Test
+    @DisplayName("Loads tag descriptions, formats and examples on demand")
+    void loadsTagDetailsOnDemand(@TempDir Path tempDir) throws Exception {
+        Path inputFile = tempDir.resolve("test-family.xml");
+        Files.writeString(inputFile, /*language=xml*/
+                          """
+                          <?xml version="1.0" encoding="UTF-8"?>
+                          <tag-collection xmlns="https://quaxantis.com/etui/tags">
+                              <family name="test-family" group="test-group">
+                                  <label>Test Family</label>
+                                  <tags>
+                                      <tag name="first"/>
+                                      <tag name="second">
+                                          <label>Second Ⓣag</label>
+                                          <description>
+                                              Second   tag &lt;b&gt;description&lt;/b&gt;
+                                          </description>
+                                          <format>
+                                              <description>Text</description>
+                                              <examples>
+                                                  <example value="a">Example A</example>
+                                                  <example pattern="b*">Example B</example>
+                                              </examples>
+                                          </format>
+                                      </tag>
+                                      <tag name="third"><description>Third</description></tag>
+                                  </tags>
+                              </family>
+                          </tag-collection>
+                          """);
+
+        when(configuration.getTagDefinitions()).thenReturn(List.of(inputFile));
+
+        assertThat(repository.findTagByQualifiedName("test-group:first")).hasValueSatisfying(tag -> {
+            assertThat(TagDescriptor.of(tag))
+                    .returns(null, TagDescriptor::description)
+                    .returns(null, TagDescriptor::formatDescription)
+                    .returns(List.of(), TagDescriptor::examples);
+        });
+        assertThat(repository.findTagByQualifiedName("test-group:second")).hasValueSatisfying(tag -> {
+            assertThat(TagDescriptor.of(tag))
+                    .returns("Second Ⓣag", TagDescriptor::label)
+                    .returns(" Second tag <b>description</b> ", TagDescriptor::description)
+                    .returns("Text", TagDescriptor::formatDescription);
+            assertThat(TagDescriptor.of(tag).examples())
+                    .extracting(TagDescriptor.Example::value, TagDescriptor.Example::pattern, TagDescriptor.Example::text)
+                    .containsExactly(tuple("a", null, "Example A"), tuple(null, "b*", "Example B"));
+        });
+        assertThat(repository.findTagByQualifiedName("test-group:third")).hasValueSatisfying(tag -> {
+            assertThat(TagDescriptor.of(tag))
+                    .returns("Third", TagDescriptor::description);
+        });
+    }
+
+    @Test
+    @DisplayName("Loads tag details on demand whatever the tag elements are named")
+    void loadsTagDetailsOfElementsWithAnyName(@TempDir Path tempDir) throws Exception {
+        Path inputFile = tempDir.resolve("test-family.xml");
+        Files.writeString(inputFile, /*language=xml*/
+                          """
+                          <?xml version="1.0" encoding="UTF-8"?>
+                          <tag-collection xmlns="https://quaxantis.com/etui/tags">
+                              <family name="test-family" group="test-group">
+                                  <tags>
+                                      <item name="first"><description>First</description></item>
+                                      <item name="second">
+                                          <description>Second</description>
+                                          <format><description>Text</description></format>
+                                      </item>
+                                  </tags>
+                              </family>
+                          </tag-collection>
+                          """);
+
+        when(configuration.getTagDefinitions()).thenReturn(List.of(inputFile));
+
+        assertThat(repository.findTagByQualifiedName("test-group:first")).hasValueSatisfying(tag -> {
+            assertThat(TagDescriptor.of(tag))
+                    .returns("First", TagDescriptor::description);
+        });
+        assertThat(repository.findTagByQualifiedName("test-group:second")).hasValueSatisfying(tag -> {
+            assertThat(TagDescriptor.of(tag))
+                    .returns("Second", TagDescriptor::description)
+                    .returns("Text", TagDescriptor::formatDescription);
+        });
+    }
+
+    @Test
+    @DisplayName("Reads the source once to load the details of all its tags")
+    void readsSourceOnceForAllTagDetails(@TempDir Path tempDir) throws Exception {
+        Path inputFile = tempDir.resolve("test-family.xml");
+        Files.writeString(inputFile, /*language=xml*/
+                          """
+                          <tag-collection>
+                              <family name="test-family" group="test-group">
+                                  <tags>
+                                      <tag name="first"><description>First</description></tag>
+                                      <tag name="second"><description>Second</description></tag>
+                                  </tags>
+                              </family>
+                          </tag-collection>
+                          """);
+
+        when(configuration.getTagDefinitions()).thenReturn(List.of(inputFile));
+        TagRepository.Cache cache = repository.cached();
+        Tag first = cache.findTagByQualifiedName("test-group:first").orElseThrow();
+        Tag second = cache.findTagByQualifiedName("test-group:second").orElseThrow();
+
+        assertThat(TagDescriptor.of(first).description()).isEqualTo("First");
+        Files.delete(inputFile);
+        assertThat(TagDescriptor.of(second).description()).isEqualTo("Second");
+    }
+
+    @Test
+    @DisplayName("Loads built-in tag descriptions on demand")
+    void loadsBuiltInTagDetailsOnDemand() {
+        assertThat(repository.findTagByQualifiedName("XMP:aggregationType")).hasValueSatisfying(tag -> {
+            assertThat(TagDescriptor.of(tag).description())
+                    .contains("The aggregation type specifies the unit of aggregation");
+            assertThat(TagDescriptor.of(tag).examples())
+                    .extracting(TagDescriptor.Example::value)
+                    .contains("blog", "whitepaper");
+        });
+    }
+
+    @Test
+    @DisplayName("Returns canonical tags and tag values")
+    void returnsCanonicalTags() {
+        var cached = repository.cached();
+
+        Tag known = cached.tag("XMP", "aggregationType");
+        assertThat(known).isSameAs(cached.findTagByQualifiedName("XMP:aggregationType").orElseThrow());
+        assertThat(cached.tag("Unknown", "Tag")).isSameAs(cached.tag("Unknown", "Tag"));
+
+        var first = cached.tagValue("EXIF", "Model", new String("Camera"));
+        var second = cached.tagValue("EXIF", "Model", new String("Camera"));
+        assertThat(second.tag()).isSameAs(first.tag());
+        assertThat(second.value()).isSameAs(first.value());
+    }
+
+    @Test
+    @DisplayName("Searches tags by name, label and description")
+    void searchesTags(@TempDir Path tempDir) throws Exception {
+        Path inputFile = tempDir.resolve("test-family.xml");
+        Files.writeString(inputFile, /*language=xml*/
+                          """
+                          <?xml version="1.0" encoding="UTF-8"?>
+                          <tag-collection xmlns="https://quaxantis.com/etui/tags">
+                              <family name="test-family" group="Search">
+                                  <tags>
+                                      <tag name="CreateDate"><description>Date of creation</description></tag>
+                                      <tag name="Creator"><label>Author</label></tag>
+                                      <tag name="Title"><description>Name given by the creator</description></tag>
+                                  </tags>
+                              </family>
+                          </tag-collection>
+                          """);
+        when(configuration.getTagDefinitions()).thenReturn(List.of(inputFile));
+
+        var cached = repository.cached();
+        assertThat(cached.search("creator", 100)).extracting(Tag::qualifiedName)
+                .filteredOn(name -> name.startsWith("Search:"))
+                .containsExactly("Search:Creator", "Search:Title");
+        assertThat(cached.search("crea", 100)).extracting(Tag::qualifiedName)
+                .filteredOn(name -> name.startsWith("Search:"))
+                .containsExactly("Search:CreateDate", "Search:Creator", "Search:Title");
+        assertThat(cached.search("author search", 100)).extracting(Tag::qualifiedName)
+                .startsWith("Search:Creator");
+        assertThat(cached.search("search da", 100)).extracting(Tag::qualifiedName)
+                .startsWith("Search:CreateDate");
+        assertThat(cached.search("crea", 1)).hasSize(1);
+        assertThat(cached.search(" ", 100)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Searches built-in tags")
+    void searchesBuiltInTags() {
+        assertThat(repository.search("aggregation", 5))
+                .extracting(Tag::qualifiedName)
+                .contains("XMP:aggregationType");
+    }
+
     @Test
     @DisplayName("Returns tags from a configured directory")
     void returnsTagFamiliesFromConfiguredDirectory(@TempDir Path tempDir) throws Exception {
@@ -112,6 +348,163 @@ class TagRepositoryTest {
                 .contains(tuple("test-family2", "test-group", "Test Family 2"));
     }
 
+    @Test
+    @DisplayName("Cache is its own cache")
+    void cacheIsItsOwnCache() {
+        TagRepository.Cache cache = repository.cached();
+
+        assertThat(cache.cached()).isSameAs(cache);
+    }
+
+    @Test
+    @DisplayName("Cache loads collections only once for concurrent callers")
+    void cacheLoadsOnceForConcurrentCallers(@TempDir Path tempDir) throws Exception {
+        Path inputFile = tempDir.resolve("test-family.txt");
+        Files.writeString(inputFile, /*language=xml*/
+                          """
+                          <tag-collection>
+                              <family name="test-family" group="test-group">
+                                  <label>Test Family</label>
+                              </family>
+                          </tag-collection>
+                          """);
+
+        when(configuration.getTagDefinitions()).thenAnswer(_ -> {
+            Thread.sleep(100);
+            return List.of(inputFile);
+        });
+
+        TagRepository.Cache cache = repository.cached();
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            List<Future<List<? extends TagFamily>>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(cache::getFamilies));
+            }
+            for (Future<List<? extends TagFamily>> future : futures) {
+                assertThat(future.get())
+                        .extracting("name")
+                        .contains("test-family");
+            }
+        }
+
+        verify(configuration, times(1)).getTagDefinitions();
+    }
+
+    @Test
+    @DisplayName("Cache loads again after an error while loading")
+    void cacheLoadsAgainAfterError(@TempDir Path tempDir) throws Exception {
+        Path inputFile = tempDir.resolve("test-family.txt");
+        Files.writeString(inputFile, /*language=xml*/
+                          """
+                          <tag-collection>
+                              <family name="test-family" group="test-group"/>
+                          </tag-collection>
+                          """);
+
+        when(configuration.getTagDefinitions())
+                .thenThrow(new StackOverflowError())
+                .thenReturn(List.of(inputFile));
+
+        TagRepository.Cache cache = repository.cached();
+        assertThatThrownBy(cache::getFamilies).isInstanceOf(StackOverflowError.class);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertThat(cache.getFamilies())
+                .extracting("name")
+                .contains("test-family"));
+    }
+
+    @Test
+    @DisplayName("Cache does not publish collections loaded before clearing")
+    void cacheDoesNotPublishCollectionsLoadedBeforeClearing(@TempDir Path tempDir) throws Exception {
+        Path inputFile1 = tempDir.resolve("test-family1.txt");
+        Path inputFile2 = tempDir.resolve("test-family2.txt");
+        Files.writeString(inputFile1, /*language=xml*/
+                          """
+                          <tag-collection>
+                              <family name="test-family1" group="test-group"/>
+                          </tag-collection>
+                          """);
+        Files.writeString(inputFile2, /*language=xml*/
+                          """
+                          <tag-collection>
+                              <family name="test-family2" group="test-group"/>
+                          </tag-collection>
+                          """);
+
+        TagRepository.Cache cache = repository.cached();
+        when(configuration.getTagDefinitions())
+                .thenAnswer(_ -> {
+                    cache.clear();
+                    return List.of(inputFile1);
+                })
+                .thenReturn(List.of(inputFile2));
+
+        assertThat(cache.getFamilies())
+                .extracting("name")
+                .contains("test-family2")
+                .doesNotContain("test-family1");
+        assertThat(cache.getFamilies())
+                .extracting("name")
+                .contains("test-family2")
+                .doesNotContain("test-family1");
+        verify(configuration, times(2)).getTagDefinitions();
+    }
+
+    @Test
+    @DisplayName("Cache finds tags by qualified name in a case-insensitive way")
+    void cacheFindsTagsCaseInsensitive() {
+        TagRepository.Cache cache = repository.cached();
+
+        assertThat(cache.findTagByQualifiedName("Xmp:AttribuTionNaMe"))
+                .containsSame(cache.findTagByQualifiedName("XMP:attributionName").orElseThrow());
+        assertThat(cache.findTagByQualifiedName("XMP:unknownTag")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Cache reloads when a tag definition file changes, after the check interval")
+    void cacheReloadsChangedTagDefinitions(@TempDir Path tempDir) throws Exception {
+        Path inputFile = tempDir.resolve("test-family.txt");
+        writeFamily(inputFile, "test-family1");
+        Files.setLastModifiedTime(inputFile, FileTime.from(Instant.parse("2024-01-01T00:00:00Z")));
+        when(configuration.getTagDefinitions()).thenReturn(List.of(inputFile));
+        var clock = new AtomicReference<>(Instant.parse("2025-01-01T00:00:00Z"));
+        TagRepository.Cache cache = repository.cached(clock::get);
+        assertThat(cache.getFamilies()).extracting("name").contains("test-family1");
+        long version = cache.version();
+
+        writeFamily(inputFile, "test-family2");
+        Files.setLastModifiedTime(inputFile, FileTime.from(Instant.parse("2024-01-02T00:00:00Z")));
+        assertThat(cache.getFamilies()).extracting("name").contains("test-family1");
+
+        clock.set(clock.get().plus(TagRepository.CHECK_INTERVAL));
+        assertThat(cache.getFamilies()).extracting("name").contains("test-family2").doesNotContain("test-family1");
+        assertThat(cache.version()).isGreaterThan(version);
+    }
+
+    @Test
+    @DisplayName("Cache reloads when a tag definition file is added to a configured directory")
+    void cacheReloadsAddedTagDefinitions(@TempDir Path tempDir) throws Exception {
+        writeFamily(tempDir.resolve("test-family1.txt"), "test-family1");
+        Files.setLastModifiedTime(tempDir, FileTime.from(Instant.parse("2024-01-01T00:00:00Z")));
+        when(configuration.getTagDefinitions()).thenReturn(List.of(tempDir));
+        var clock = new AtomicReference<>(Instant.parse("2025-01-01T00:00:00Z"));
+        TagRepository.Cache cache = repository.cached(clock::get);
+        assertThat(cache.getFamilies()).extracting("name").contains("test-family1");
+
+        writeFamily(tempDir.resolve("test-family2.txt"), "test-family2");
+
+        clock.set(clock.get().plus(TagRepository.CHECK_INTERVAL));
+        assertThat(cache.getFamilies()).extracting("name").contains("test-family1", "test-family2");
+    }
+
+    private static void writeFamily(Path file, String name) throws Exception {
+        Files.writeString(file, /*language=xml*/
+                          """
+                          <tag-collection>
+                              <family name="%s" group="test-group"/>
+                          </tag-collection>
+                          """.formatted(name));
+    }
+
     @Test
     @DisplayName("Ignores non-existing files")
     void ignoresNonExistingConfiguredFile(@TempDir Path tempDir) throws Exception {
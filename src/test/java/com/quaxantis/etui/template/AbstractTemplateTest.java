@@ -84,6 +84,35 @@ public abstract class AbstractTemplateTest {
                 .containsExactlyInAnyOrder(tag, tag3);
     }
 
+    @Test
+    @DisplayName("Provides the variables mapped to a tag")
+    void testVariablesOfTag() {
+        var template = builder()
+                .addVariable(new VariableBuilder().setName(VARIABLE_NAME).addTargetTag(tag).addTargetTag(tag3))
+                .addVariable(new VariableBuilder().setName(VARIABLE2_NAME).addTargetTag(tag3))
+                .build();
+
+        assertThat(template.variables(Tag.of(GROUP_NAME.toLowerCase(), TAG_NAME.toUpperCase())))
+                .extracting(Template.Variable::name)
+                .containsExactly(VARIABLE_NAME);
+        assertThat(template.variables(tag3))
+                .extracting(Template.Variable::name)
+                .containsExactly(VARIABLE_NAME, VARIABLE2_NAME);
+        assertThat(template.variables(tag2)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Finds variables by name")
+    void testVariableByName() {
+        var template = builder()
+                .addVariable(new VariableBuilder().setName(VARIABLE_NAME))
+                .addVariable(new VariableBuilder().setName(VARIABLE2_NAME))
+                .build();
+
+        assertThat(template.variableByName(VARIABLE2_NAME)).containsSame(template.variables().get(1));
+        assertThat(template.variableByName("unknown")).isEmpty();
+    }
+
     @Test
     @DisplayName("Provides a default expression evaluator")
     void provideExpressionEvaluator() {
@@ -2,6 +2,8 @@ package com.quaxantis.etui.template;
 
 import com.quaxantis.etui.*;
 import com.quaxantis.etui.Template.Variable;
+import com.quaxantis.etui.template.expression.Binding;
+import com.quaxantis.etui.template.expression.ExpressionEvaluator;
 import org.assertj.core.groups.Tuple;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -9,12 +11,23 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 
 import static com.quaxantis.etui.template.test.MockTemplate.mockTemplate;
 import static com.quaxantis.etui.template.test.MockTemplateValues.mockValues;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
@@ -208,6 +221,111 @@ class TemplateMapperTest {
 
     }
 
+    @Nested
+    @DisplayName("analyzes unspecified variables")
+    class AnalyzeUnspecifiedVariables {
+        private final Variable.Builder unspecified = Variable.withName("unspecified");
+        private final Variable.Builder composite1 = Variable.withName("composite-1").setExpression("expression-1");
+        private final Variable.Builder composite2 = Variable.withName("composite-2").setExpression("expression-2");
+        private final TemplateValues values = mockValues()
+                .withEntry(composite1, "value-1")
+                .withEntry(composite2, "value-2")
+                .mock();
+        private final TemplateValues changedValues = mockValues()
+                .withEntry(composite1, "value-1")
+                .withEntry(composite2, "value-3")
+                .mock();
+
+        @Test
+        @DisplayName("from the best binding of concurrent deinterpolations")
+        void analyzesConcurrently() {
+            CountDownLatch started = new CountDownLatch(2);
+            TemplateMapper mapper = mapper(Duration.ofSeconds(10), (expression, value) -> {
+                started.countDown();
+                // Only binds when both deinterpolations run at the same time
+                if (!await(started)) {
+                    return List.of();
+                }
+                return expression.equals("expression-1")
+                        ? List.of(new TestBinding(0.5, "from-1"))
+                        : List.of(new TestBinding(0.9, "from-2"));
+            });
+
+            assertThat(mapper.analyzeUnspecifiedVariables(values))
+                    .hasEntrySatisfying("unspecified", entry -> assertThat(entry.value()).hasValue("from-2"));
+        }
+
+        @Test
+        @DisplayName("ignoring deinterpolations that exceed the time budget")
+        void ignoresSlowDeinterpolations() {
+            TemplateMapper mapper = mapper(Duration.ofMillis(200), (expression, value) -> {
+                if (expression.equals("expression-2")) {
+                    await(new CountDownLatch(1));
+                    return List.of(new TestBinding(0.9, "from-2"));
+                }
+                return List.of(new TestBinding(0.5, "from-1"));
+            });
+
+            assertThat(mapper.analyzeUnspecifiedVariables(values))
+                    .hasEntrySatisfying("unspecified", entry -> assertThat(entry.value()).hasValue("from-1"));
+        }
+
+        @Test
+        @DisplayName("again in a session, only deinterpolating the expressions affected by changed values")
+        void analyzesIncrementally() {
+            List<String> deinterpolated = new CopyOnWriteArrayList<>();
+            TemplateMapper mapper = mapper(Duration.ofSeconds(10), (expression, value) -> {
+                deinterpolated.add(expression + "=" + value);
+                return List.of(new TestBinding(expression.equals("expression-1") ? 0.5 : 0.9, "from-" + value));
+            });
+            TemplateMapper.AnalysisSession session = mapper.newAnalysisSession();
+
+            session.analyzeUnspecifiedVariables(values);
+            session.analyzeUnspecifiedVariables(values);
+            var analyzed = session.analyzeUnspecifiedVariables(changedValues);
+
+            assertThat(deinterpolated).containsExactlyInAnyOrder("expression-1=value-1", "expression-2=value-2", "expression-2=value-3");
+            assertThat(analyzed).hasEntrySatisfying("unspecified", entry -> assertThat(entry.value()).hasValue("from-value-3"));
+        }
+
+        private TemplateMapper mapper(Duration budget, BiFunction<String, String, Collection<Binding>> deinterpolation) {
+            Template template = mockTemplate().withVariables(unspecified, composite1, composite2).mock();
+            doReturn(new ExpressionEvaluator() {
+                @Override
+                public String evaluate(String expression, TemplateValues values) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public Optional<Set<String>> variablesOf(String expression) {
+                    return Optional.of(expression.equals("expression-1") ? Set.of("unspecified", "composite-1") : Set.of("unspecified", "composite-2"));
+                }
+
+                @Override
+                public Collection<Binding> deinterpolate(String expression, Map<String, String> boundVariables, String evaluatedExpression) {
+                    return deinterpolation.apply(expression, evaluatedExpression);
+                }
+            }).when(template).expressionEvaluator();
+            return new TemplateMapper(template, budget);
+        }
+
+        private static boolean await(CountDownLatch latch) {
+            try {
+                return latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException exc) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private record TestBinding(double score, String unspecifiedValue) implements Binding {
+            @Override
+            public Optional<String> valueOf(String variable) {
+                return Optional.of(unspecifiedValue).filter(_ -> variable.equals("unspecified"));
+            }
+        }
+    }
+
     private static Consumer<TemplateValues.Entry> entryOf(String expectedValue, Tuple... expectedSources) {
         return entry -> {
             assertThat(entry.value()).hasValue(expectedValue);
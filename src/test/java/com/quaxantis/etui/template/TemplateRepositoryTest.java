@@ -0,0 +1,136 @@
+package com.quaxantis.etui.template;
+
+import com.quaxantis.etui.Template;
+import com.quaxantis.etui.application.config.Configuration;
+import com.quaxantis.etui.tag.TagRepository;
+import com.quaxantis.etui.template.xml.ConfiguredTemplate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@DisplayName("TemplateRepository")
+@ExtendWith(MockitoExtension.class)
+class TemplateRepositoryTest {
+
+    @Mock
+    Configuration configuration;
+
+    @Test
+    @DisplayName("Returns the same template instances until invalidated")
+    void returnsStableTemplates(@TempDir Path tempDir) throws Exception {
+        writeTemplates(tempDir.resolve("templates.xml"), "first");
+        when(configuration.getTemplatePaths()).thenReturn(List.of(tempDir.toString()));
+        var repository = new TemplateRepository(configuration, new TagRepository(configuration));
+
+        List<Template> templates = repository.templates();
+        long version = repository.version();
+        assertThat(configuredTemplateNames(repository)).containsExactly("first");
+        assertThat(repository.templates()).isSameAs(templates);
+        assertThat(repository.version()).isEqualTo(version);
+
+        repository.invalidate();
+        assertThat(repository.templates()).isNotSameAs(templates);
+        assertThat(repository.version()).isGreaterThan(version);
+    }
+
+    @Test
+    @DisplayName("Reloads templates when a template file changes, after the check interval")
+    void reloadsChangedTemplates(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("templates.xml");
+        writeTemplates(file, "first");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.parse("2024-01-01T00:00:00Z")));
+        when(configuration.getTemplatePaths()).thenReturn(List.of(tempDir.toString()));
+        var clock = new AtomicReference<>(Instant.parse("2025-01-01T00:00:00Z"));
+        var repository = new TemplateRepository(configuration, new TagRepository(configuration), clock::get);
+        assertThat(configuredTemplateNames(repository)).containsExactly("first");
+
+        writeTemplates(file, "second");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.parse("2024-01-02T00:00:00Z")));
+        assertThat(configuredTemplateNames(repository)).containsExactly("first");
+
+        clock.set(clock.get().plus(TemplateRepository.CHECK_INTERVAL));
+        assertThat(configuredTemplateNames(repository)).containsExactly("second");
+    }
+
+    @Test
+    @DisplayName("Reloads templates when a template file is added to an empty subdirectory")
+    void reloadsAddedTemplates(@TempDir Path tempDir) throws Exception {
+        writeTemplates(tempDir.resolve("templates.xml"), "first");
+        Path subdirectory = Files.createDirectories(tempDir.resolve("sub"));
+        Files.setLastModifiedTime(subdirectory, FileTime.from(Instant.parse("2024-01-01T00:00:00Z")));
+        when(configuration.getTemplatePaths()).thenReturn(List.of(tempDir.toString()));
+        var clock = new AtomicReference<>(Instant.parse("2025-01-01T00:00:00Z"));
+        var repository = new TemplateRepository(configuration, new TagRepository(configuration), clock::get);
+        assertThat(configuredTemplateNames(repository)).containsExactly("first");
+
+        writeTemplates(subdirectory.resolve("templates.xml"), "second");
+
+        clock.set(clock.get().plus(TemplateRepository.CHECK_INTERVAL));
+        assertThat(configuredTemplateNames(repository)).containsExactlyInAnyOrder("first", "second");
+    }
+
+    @Test
+    @DisplayName("Reloads templates when the configured template paths change")
+    void reloadsForChangedConfiguration(@TempDir Path tempDir) throws Exception {
+        writeTemplates(tempDir.resolve("first/templates.xml"), "first");
+        writeTemplates(tempDir.resolve("second/templates.xml"), "second");
+        when(configuration.getTemplatePaths()).thenReturn(List.of(tempDir.resolve("first").toString()));
+        var repository = new TemplateRepository(configuration, new TagRepository(configuration));
+        assertThat(configuredTemplateNames(repository)).containsExactly("first");
+
+        when(configuration.getTemplatePaths()).thenReturn(List.of(tempDir.resolve("second").toString()));
+
+        assertThat(configuredTemplateNames(repository)).containsExactly("second");
+    }
+
+    @Test
+    @DisplayName("Keeps the shared tags when reloading templates")
+    void keepsSharedTagsWhenReloading(@TempDir Path tempDir) throws Exception {
+        writeTemplates(tempDir.resolve("templates.xml"), "first");
+        when(configuration.getTemplatePaths()).thenReturn(List.of(tempDir.toString()));
+        var tagRepository = new TagRepository(configuration).cached();
+        var repository = new TemplateRepository(configuration, tagRepository);
+        var tag = tagRepository.tag("XMP", "Title");
+        repository.templates();
+
+        repository.invalidate();
+        repository.templates();
+
+        assertThat(tagRepository.tag("XMP", "Title")).isSameAs(tag);
+        verify(configuration, times(1)).getTagDefinitions();
+    }
+
+    private static List<String> configuredTemplateNames(TemplateRepository repository) {
+        return repository.templates()
+                .stream()
+                .filter(ConfiguredTemplate.class::isInstance)
+                .map(Template::name)
+                .toList();
+    }
+
+    private static void writeTemplates(Path file, String name) throws Exception {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, /*language=xml*/
+                          """
+                          <template-collection>
+                              <template>
+                                  <label>%s</label>
+                                  <variable name='var' tag='XMP:Title' />
+                              </template>
+                          </template-collection>
+                          """.formatted(name));
+    }
+}
@@ -0,0 +1,77 @@
+package com.quaxantis.etui.template.expression.eel;
+
+import com.quaxantis.etui.template.expression.parser.SimpleParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("EELCompiler")
+class EELCompilerTest {
+    private static final SimpleParser<Expression> parser = EELExpressionEvaluator.parser();
+
+    private static final List<Map<String, String>> VALUE_SETS = List.of(
+            Map.of(),
+            Map.of("a", "A", "b", "B", "c", "C"),
+            Map.of("a", "", "b", "B"),
+            Map.of("b", "", "c", "C"),
+            Map.of("a", "A", "c", "")
+    );
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @ValueSource(strings = {
+            "",
+            "literal",
+            "${a}",
+            "${a}.${a}",
+            "first${a}second",
+            "${a?:b}",
+            "${a?:b?:c}",
+            "${a?:'default'}",
+            "${a?+b}",
+            "${a+?b}",
+            "${a+?b?+c}",
+            "${'<'+?a?+'>'}",
+            "${(a?:b)?+'.'}",
+            "${\"${a}${b}\"?:c}",
+            "${a?+'.'}${' '+?b?+'.'}${', nr. '+?c}",
+            "${'.'}",
+            "${(a+?b)+?c}",
+    })
+    @DisplayName("Evaluates like the resolver")
+    void evaluatesLikeResolver(String expressionString) {
+        Expression expression = parser.parse(expressionString);
+        var compiled = EELCompiler.compile(expression);
+
+        for (Map<String, String> values : VALUE_SETS) {
+            Function<String, String> identifierResolver = values::get;
+            assertThat(compiled.evaluate(identifierResolver))
+                    .describedAs("%s with %s", expressionString, values)
+                    .isEqualTo(new EELExpressionResolver(identifierResolver).resolve(expression));
+        }
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @ValueSource(strings = {"${a}${a}${a}", "${a?:a}", "${a+?a?+a}"})
+    @DisplayName("Resolves each identifier once per evaluation")
+    void resolvesIdentifiersOnce(String expressionString) {
+        var compiled = EELCompiler.compile(parser.parse(expressionString));
+        List<String> resolved = new ArrayList<>();
+        Map<String, String> values = new HashMap<>(Map.of("a", "A"));
+
+        compiled.evaluate(name -> {
+            resolved.add(name);
+            return values.get(name);
+        });
+
+        assertThat(resolved).containsExactly("a");
+        assertThat(compiled.identifiers()).containsExactly("a");
+    }
+}
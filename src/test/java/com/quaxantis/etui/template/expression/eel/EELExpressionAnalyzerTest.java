@@ -1,8 +1,12 @@
 package com.quaxantis.etui.template.expression.eel;
 
+import com.quaxantis.etui.template.expression.Binding;
+import com.quaxantis.etui.template.expression.Budget;
+import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -135,6 +139,139 @@ class EELExpressionAnalyzerTest {
 
     }
 
+    @Test
+    @DisplayName("providing bindings for a chain of optional suffixes")
+    void matchChainedOptionalSuffixes() {
+        var concat = new Expression.Concat(
+                new Expression.OptSuffix(new Expression.Identifier("var1"), new Expression.Text(" - ")),
+                new Expression.OptSuffix(new Expression.Identifier("var2"), new Expression.Text(" - ")),
+                new Expression.OptSuffix(new Expression.Identifier("var3"), new Expression.Text(" - ")),
+                new Expression.Identifier("var4"));
+
+        assertThat(concat).matching("One - Two - Three - Four", Map.of("var2", "Two"))
+                .bindings()
+                .filteredOnScore(1.0)
+                .allFullyMatchExpression()
+                .containValues(Map.of("var1", "One", "var2", "Two", "var3", "Three", "var4", "Four"),
+                               Map.of("var1", "One", "var2", "Two", "var3", "", "var4", "Three - Four"));
+    }
+
+    @Test
+    @DisplayName("keeping no more matches than the beam width")
+    void limitMatchesToBeamWidth() {
+        var concat = new Expression.Concat(
+                new Expression.OptSuffix(new Expression.Identifier("var1"), new Expression.Text(" - ")),
+                new Expression.OptSuffix(new Expression.Identifier("var2"), new Expression.Text(" - ")),
+                new Expression.OptSuffix(new Expression.Identifier("var3"), new Expression.Text(" - ")),
+                new Expression.Identifier("var4"));
+        var analyzer = new EELExpressionAnalyzer(2, EELExpressionAnalyzer.DEFAULT_MINIMUM_SCORE);
+
+        Assertions.assertThat(analyzer.match(concat, "One - Two - Three - Four", Map.of("var2", "Two")))
+                .hasSizeBetween(1, 2)
+                .allMatch(match -> match.score() >= EELExpressionAnalyzer.DEFAULT_MINIMUM_SCORE);
+    }
+
+    @Test
+    @DisplayName("filling the beam only with concatenations reaching the minimum score")
+    void fillBeamWithConcatenationsReachingMinimumScore() {
+        // Concatenating constrains the values of the variables,
+        // so some of the pairs of matches estimated best concatenate into matches below the minimum score
+        var c = new Expression.Identifier("c");
+        var concat = new Expression.Concat(
+                new Expression.Identifier("a"),
+                c,
+                new Expression.Concat(
+                        new Expression.Concat(new Expression.Identifier("b"), new Expression.Text(" - "), c),
+                        new Expression.OptPrefix(c, new Expression.Text("x"))));
+        var analyzer = new EELExpressionAnalyzer(2, EELExpressionAnalyzer.DEFAULT_MINIMUM_SCORE);
+
+        Assertions.assertThat(analyzer.match(concat, "a - bx - xxx", Map.of("c", "a - b")))
+                .isNotEmpty()
+                .allMatch(match -> match.score() >= EELExpressionAnalyzer.DEFAULT_MINIMUM_SCORE);
+    }
+
+    @Test
+    @DisplayName("concatenating the pairs of matches that can still beat the matches in the beam")
+    void concatenatePairsBeatingTheBeam() {
+        // The pairs estimated best fill the beam, while a pair estimated lower concatenates into the best match
+        var c = new Expression.Identifier("c");
+        var concat = new Expression.Concat(
+                new Expression.Elvis(new Expression.Identifier("b"), c),
+                new Expression.Text("."),
+                new Expression.OptPrefix(c, new Expression.Text("ab")));
+        var analyzer = new EELExpressionAnalyzer(2, EELExpressionAnalyzer.DEFAULT_MINIMUM_SCORE);
+
+        Assertions.assertThat(analyzer.findBindings(concat, "..xab", Map.of("b", "a - b")))
+                .anySatisfy(binding -> Assertions.assertThat(binding.score()).isGreaterThanOrEqualTo(0.9));
+    }
+
+    @Test
+    @DisplayName("preferring bindings of the whole expression reaching the preferred score, whatever their submatches scored")
+    void preferBindingsOfWholeExpression() {
+        // Bound to "xx", c differs from its given value; bound to the empty string, it only omits the given value
+        var optPrefix = new Expression.OptPrefix(new Expression.Identifier("b"), new Expression.Identifier("c"));
+
+        Assertions.assertThat(new EELExpressionAnalyzer().findBindings(optPrefix, "xx", Map.of("c", "ab")))
+                .singleElement()
+                .satisfies(binding -> {
+                    Assertions.assertThat(binding.score()).isEqualTo(0.5);
+                    Assertions.assertThat(binding.valueOf("c")).hasValue("");
+                });
+    }
+
+    @Test
+    @DisplayName("providing bindings of the whole expression reaching the minimum score, whatever their submatches scored")
+    void provideBindingsOfWholeExpression() {
+        var b = new Expression.Identifier("b");
+        var elvis = new Expression.Elvis(b, new Expression.OptSuffix(b, new Expression.Text("")));
+
+        Assertions.assertThat(new EELExpressionAnalyzer().findBindings(elvis, "Foo", Map.of("b", "x")))
+                .extracting(Binding::score)
+                .containsExactlyInAnyOrder(0.2, 0.25);
+    }
+
+    @Test
+    @DisplayName("providing complete bindings within the budget")
+    void matchWithinBudget() {
+        var deinterpolation = new EELExpressionAnalyzer().findBindings(optionalSuffixChain(), "One - Two - Three - Four", Map.of("var2", "Two"), Budget.unlimited());
+
+        Assertions.assertThat(deinterpolation.partial()).isFalse();
+        Assertions.assertThat(deinterpolation.bindings())
+                .filteredOn(binding -> binding.score() >= 1.0)
+                .hasSizeGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("providing the best bindings found when the budget is exhausted")
+    void matchWithExhaustedBudget() {
+        var deinterpolation = new EELExpressionAnalyzer().findBindings(optionalSuffixChain(), "One - Two - Three - Four", Map.of("var2", "Two"), Budget.of(Duration.ZERO));
+
+        Assertions.assertThat(deinterpolation.partial()).isTrue();
+        Assertions.assertThat(deinterpolation.bindings())
+                .isNotEmpty()
+                .allSatisfy(binding -> Assertions.assertThat(binding.valueOf("var2")).hasValue("Two"));
+    }
+
+    @Test
+    @DisplayName("providing no bindings when the budget is cancelled")
+    void matchWithCancelledBudget() {
+        Budget budget = Budget.unlimited();
+        budget.cancel();
+
+        var deinterpolation = new EELExpressionAnalyzer().findBindings(optionalSuffixChain(), "One - Two - Three - Four", Map.of("var2", "Two"), budget);
+
+        Assertions.assertThat(deinterpolation.partial()).isTrue();
+        Assertions.assertThat(deinterpolation.bindings()).isEmpty();
+    }
+
+    private static Expression optionalSuffixChain() {
+        return new Expression.Concat(
+                new Expression.OptSuffix(new Expression.Identifier("var1"), new Expression.Text(" - ")),
+                new Expression.OptSuffix(new Expression.Identifier("var2"), new Expression.Text(" - ")),
+                new Expression.OptSuffix(new Expression.Identifier("var3"), new Expression.Text(" - ")),
+                new Expression.Identifier("var4"));
+    }
+
     @Test
     @DisplayName("does not run out of memory when evaluating a realistic expression")
     void noOutOfMemory() {
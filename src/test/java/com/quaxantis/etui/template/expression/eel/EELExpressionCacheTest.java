@@ -0,0 +1,71 @@
+package com.quaxantis.etui.template.expression.eel;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@DisplayName("EELExpressionCache")
+class EELExpressionCacheTest {
+
+    @SuppressWarnings("unchecked")
+    private final Function<String, Expression> parser = mock(Function.class, invocation -> new Expression.Text(invocation.getArgument(0)));
+
+    @Test
+    @DisplayName("Parses an expression only once")
+    void parsesOnce() {
+        var cache = new EELExpressionCache<String, Expression>(10);
+
+        var first = cache.get("a", parser);
+        var second = cache.get("a", parser);
+
+        assertThat(second).isSameAs(first).isEqualTo(new Expression.Text("a"));
+        verify(parser, times(1)).apply("a");
+    }
+
+    @Test
+    @DisplayName("Evicts the least recently used expression when full")
+    void evictsLeastRecentlyUsed() {
+        var cache = new EELExpressionCache<String, Expression>(2);
+
+        cache.get("a", parser);
+        cache.get("b", parser);
+        cache.get("a", parser);
+        cache.get("c", parser);
+        cache.get("a", parser);
+        cache.get("b", parser);
+
+        assertThat(cache.size()).isEqualTo(2);
+        verify(parser, times(1)).apply("a");
+        verify(parser, times(2)).apply("b");
+    }
+
+    @Test
+    @DisplayName("Counts hits and misses")
+    void countsHitsAndMisses() {
+        var cache = new EELExpressionCache<String, Expression>(2);
+
+        cache.get("a", parser);
+        cache.get("a", parser);
+        cache.getIfPresent("b");
+
+        assertThat(cache.hits()).isEqualTo(1);
+        assertThat(cache.misses()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Does not cache expressions that fail to parse")
+    void doesNotCacheFailures() {
+        var cache = new EELExpressionCache<String, Expression>(2);
+        Function<String, Expression> failingParser = _ -> {
+            throw new IllegalStateException("Unparseable");
+        };
+
+        assertThatThrownBy(() -> cache.get("a", failingParser)).isInstanceOf(IllegalStateException.class);
+        assertThat(cache.size()).isZero();
+    }
+}
@@ -0,0 +1,82 @@
+package com.quaxantis.etui.template.expression.eel;
+
+import com.quaxantis.etui.template.expression.Binding;
+import com.quaxantis.etui.template.expression.Budget;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("EELExpressionEvaluator")
+class EELExpressionEvaluatorTest {
+
+    private final EELExpressionEvaluator evaluator = new EELExpressionEvaluator(_ -> Optional.empty());
+
+    @Test
+    @DisplayName("Deinterpolates the same value with the same relevant bound variables only once")
+    void cachesDeinterpolations() {
+        var first = evaluator.deinterpolate("${cachedTitle} - ${cachedAuthor}", Map.of("cachedTitle", "Title", "unrelated", "1"), "Title - Author");
+        var second = evaluator.deinterpolate("${cachedTitle} - ${cachedAuthor}", Map.of("cachedTitle", "Title", "unrelated", "2"), "Title - Author");
+        var budgeted = evaluator.deinterpolate("${cachedTitle} - ${cachedAuthor}", Map.of("cachedTitle", "Title"), "Title - Author", Budget.of(Duration.ZERO));
+
+        assertThat(first).isNotEmpty();
+        assertThat(second).isSameAs(first);
+        assertThat(budgeted.bindings()).isSameAs(first);
+        assertThat(budgeted.partial()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Does not reuse deinterpolations for other relevant bound variables")
+    void doesNotReuseDeinterpolationsForOtherBindings() {
+        var first = evaluator.deinterpolate("${otherTitle} - ${otherAuthor}", Map.of("otherTitle", "Title"), "Title - Author");
+        var second = evaluator.deinterpolate("${otherTitle} - ${otherAuthor}", Map.of("otherTitle", "Other"), "Title - Author");
+
+        assertThat(second).isNotSameAs(first);
+    }
+
+    @Test
+    @DisplayName("Deinterpolates an unambiguous value to its only binding")
+    void deinterpolatesUnambiguousValue() {
+        var bindings = evaluator.deinterpolate("${regexTitle} (${regexYear})", Map.of(), "Title (2020)");
+
+        assertThat(bindings).singleElement().satisfies(binding -> {
+            assertThat(binding.valueOf("regexTitle")).hasValue("Title");
+            assertThat(binding.valueOf("regexYear")).hasValue("2020");
+        });
+    }
+
+    @Test
+    @DisplayName("Deinterpolates an unambiguous value equal to the given values to the binding the analyzer scores best")
+    void deinterpolatesUnambiguousValueEqualToGivenValues() {
+        var bindings = evaluator.deinterpolate("${givenTitle} (${givenYear})", Map.of("givenTitle", "Title"), "Title (2020)");
+        var analyzed = new EELExpressionAnalyzer().findBindings(EELExpressionEvaluator.parser().parse("${givenTitle} (${givenYear})"),
+                                                                "Title (2020)", Map.of("givenTitle", "Title"))
+                .max(Comparator.comparingDouble(Binding::score))
+                .orElseThrow();
+
+        assertThat(bindings).singleElement().satisfies(binding -> {
+            assertThat(binding.score()).isEqualTo(analyzed.score()).isEqualTo(1.0);
+            assertThat(binding.valueOf("givenTitle")).hasValue("Title");
+            assertThat(binding.valueOf("givenYear")).hasValue("2020");
+        });
+    }
+
+    @Test
+    @DisplayName("Leaves an unambiguous value differing from a given value to the analyzer")
+    void analyzesUnambiguousValueDifferentFromGivenValues() {
+        var bindings = evaluator.deinterpolate("${differentTitle} (${differentYear})", Map.of("differentTitle", "Other"), "Title (2020)");
+
+        assertThat(bindings)
+                .isNotEmpty()
+                .allSatisfy(binding -> assertThat(binding.score()).isLessThan(1.0))
+                .anySatisfy(binding -> {
+                    assertThat(binding.valueOf("differentTitle")).hasValue("Title");
+                    assertThat(binding.valueOf("differentYear")).hasValue("2020");
+                });
+    }
+}
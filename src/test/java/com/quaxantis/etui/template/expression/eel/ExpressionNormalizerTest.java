@@ -0,0 +1,92 @@
+package com.quaxantis.etui.template.expression.eel;
+
+import com.quaxantis.etui.template.expression.eel.Expression.*;
+import com.quaxantis.etui.template.expression.parser.SimpleParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ExpressionNormalizer")
+class ExpressionNormalizerTest {
+    private static final SimpleParser<Expression> parser = EELExpressionEvaluator.parser();
+
+    private static final List<Map<String, String>> VALUE_SETS = List.of(
+            Map.of(),
+            Map.of("a", "A", "b", "B", "c", "C"),
+            Map.of("a", "", "b", "B"),
+            Map.of("b", "", "c", "C"),
+            Map.of("a", "A", "c", "")
+    );
+
+    @Test
+    @DisplayName("Flattens concatenations, merges texts and removes delegates")
+    void flattensConcatenations() {
+        var expression = new Concat(new Concat(new Text("a"), new Text("")), new Delegate(new Text("b")),
+                                    new Identifier("x"), new Concat(new Text("c"), new Delegate(new Identifier("y"))));
+
+        assertThat(ExpressionNormalizer.normalize(expression))
+                .isEqualTo(new Concat(new Text("ab"), new Identifier("x"), new Text("c"), new Identifier("y")));
+        assertThat(ExpressionNormalizer.normalize(parser.parse("${a} - ${b}")))
+                .isEqualTo(new Concat(new Identifier("a"), new Text(" - "), new Identifier("b")));
+    }
+
+    @Test
+    @DisplayName("Keeps a concatenation of a single identifier, which resolves null to an empty string")
+    void keepsConcatenationOfIdentifier() {
+        assertThat(ExpressionNormalizer.normalize(new Concat(new Text(""), new Identifier("x"))))
+                .isEqualTo(new Concat(new Identifier("x")));
+        assertThat(ExpressionNormalizer.normalize(new Concat(new Concat(new Text("x")))))
+                .isEqualTo(new Text("x"));
+    }
+
+    @Test
+    @DisplayName("Resolves elvis and optional expressions with a constant or non-empty main expression")
+    void resolvesConstants() {
+        assertThat(ExpressionNormalizer.normalize(parser.parse("${'x'?:a}"))).isEqualTo(new Text("x"));
+        assertThat(ExpressionNormalizer.normalize(parser.parse("${''?:a}"))).isEqualTo(new Identifier("a"));
+        assertThat(ExpressionNormalizer.normalize(parser.parse("${(a?:'x')?:b}")))
+                .isEqualTo(new Elvis(new Identifier("a"), new Text("x")));
+        assertThat(ExpressionNormalizer.normalize(parser.parse("${(a?:'')?:b}")))
+                .isEqualTo(new Elvis(new Identifier("a"), new Identifier("b")));
+        assertThat(ExpressionNormalizer.normalize(parser.parse("${a+?'x'?+b}")))
+                .isEqualTo(new Concat(new Identifier("a"), new Text("x"), new Identifier("b")));
+        assertThat(ExpressionNormalizer.normalize(parser.parse("${''+?a}"))).isEqualTo(new Identifier("a"));
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @ValueSource(strings = {
+            "",
+            "${a}",
+            "first${a}second",
+            "${a?:b?:c}",
+            "${(a?:b)?:c}",
+            "${(a?:'')?:c}",
+            "${('x'?:a)?+b}",
+            "${''?+a}",
+            "${a?+''}",
+            "${''+?a?+''}",
+            "${\"${a}${b}\"?:c}",
+            "${\"${a}\"?:c}",
+            "${a?+'.'}${' '+?b?+'.'}${', nr. '+?c}",
+            "${(a+?b)+?c}",
+    })
+    @DisplayName("Resolves like the original expression")
+    void resolvesLikeOriginal(String expressionString) {
+        Expression expression = parser.parse(expressionString);
+        Expression normalized = ExpressionNormalizer.normalize(expression);
+
+        for (Map<String, String> values : VALUE_SETS) {
+            Function<String, String> identifierResolver = values::get;
+            assertThat(new EELExpressionResolver(identifierResolver).resolve(normalized))
+                    .describedAs("%s with %s", expressionString, values)
+                    .isEqualTo(new EELExpressionResolver(identifierResolver).resolve(expression));
+        }
+    }
+}
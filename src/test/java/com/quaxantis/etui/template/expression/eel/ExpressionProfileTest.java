@@ -0,0 +1,77 @@
+package com.quaxantis.etui.template.expression.eel;
+
+import com.quaxantis.etui.template.expression.eel.Expression.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ExpressionProfile")
+class ExpressionProfileTest {
+
+    @Test
+    @DisplayName("Requires the literals of a concatenation")
+    void profilesConcat() {
+        var profile = profile(new Concat(new Identifier("title"), new Text(" - "), new Identifier("author"), new Text("©")));
+
+        assertThat(profile).isEqualTo(new ExpressionProfile(4, ExpressionProfile.UNBOUNDED, List.of(" - ", "©"), Set.of("title", "author")));
+        assertThat(profile.canBeEmpty()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Profiles a constant expression with a maximum length")
+    void profilesConstant() {
+        var profile = profile(new Concat(new Text("abc"), new Elvis(new Text("d"), new Text("ef"))));
+
+        assertThat(profile.minLength()).isEqualTo(4);
+        assertThat(profile.maxLength()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Does not require the additions of optional expressions that can be empty")
+    void profilesOptionalAdditions() {
+        var profile = profile(new OptSuffix(new OptPrefix(new Text(" - "), new Identifier("author")), new Text(".")));
+
+        assertThat(profile.anchors()).isEmpty();
+        assertThat(profile.canBeEmpty()).isTrue();
+        assertThat(profile.identifiers()).containsExactly("author");
+    }
+
+    @Test
+    @DisplayName("Requires the additions of optional expressions that cannot be empty")
+    void profilesRequiredAdditions() {
+        var profile = profile(new OptPrefix(new Text("["), new OptSuffix(new Text("x"), new Text("]"))));
+
+        assertThat(profile.anchors()).containsExactly("x", "]", "[");
+        assertThat(profile.minLength()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Requires the main expression of an elvis expression only")
+    void profilesElvis() {
+        var profile = profile(new Elvis(new OptPrefix(new Text(" - "), new Identifier("author")), new Text("anonymous")));
+
+        assertThat(profile.anchors()).isEmpty();
+        assertThat(profile.minLength()).isEqualTo(1);
+        assertThat(profile.identifiers()).containsExactly("author");
+    }
+
+    @Test
+    @DisplayName("Is only possible in strings containing its anchors and reaching its minimum length")
+    void isPossibleIn() {
+        var profile = profile(new Concat(new Identifier("title"), new Text(" - "), new Identifier("author")));
+
+        assertThat(profile.isPossibleIn("Title - Author")).isTrue();
+        assertThat(profile.isPossibleIn(" - ")).isTrue();
+        assertThat(profile.isPossibleIn("Title, Author")).isFalse();
+        assertThat(profile.isPossibleIn(" -")).isFalse();
+    }
+
+    private static ExpressionProfile profile(Expression expression) {
+        return ExpressionProfile.of(expression, new IdentityHashMap<>());
+    }
+}
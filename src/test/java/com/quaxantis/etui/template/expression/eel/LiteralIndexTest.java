@@ -0,0 +1,42 @@
+package com.quaxantis.etui.template.expression.eel;
+
+import com.quaxantis.etui.template.expression.eel.Expression.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LiteralIndex")
+class LiteralIndexTest {
+
+    @Test
+    @DisplayName("Finds all positions of the literals of an expression")
+    void findsPositions() {
+        var expression = new Concat(new Identifier("title"), new OptPrefix(new Text(" - "), new Identifier("author")), new Text("-"));
+        var index = LiteralIndex.of(expression, "A - B - C-");
+
+        assertThat(index.positions(" - ")).containsExactly(1, 5);
+        assertThat(index.positions("-")).containsExactly(2, 6, 9);
+    }
+
+    @Test
+    @DisplayName("Finds overlapping literals and literals that are suffixes of others")
+    void findsOverlappingPositions() {
+        var expression = new Concat(new Text("aa"), new Text("baa"), new Text("ab"));
+        var index = LiteralIndex.of(expression, "aabaaab");
+
+        assertThat(index.positions("aa")).containsExactly(0, 3, 4);
+        assertThat(index.positions("baa")).containsExactly(2);
+        assertThat(index.positions("ab")).containsExactly(1, 5);
+    }
+
+    @Test
+    @DisplayName("Searches literals outside the expression on demand")
+    void findsOtherLiterals() {
+        var index = LiteralIndex.of(new Text("x"), "a, b, c");
+
+        assertThat(index.contains("x")).isFalse();
+        assertThat(index.contains(", ")).isTrue();
+        assertThat(index.positions(", ")).containsExactly(1, 4);
+    }
+}
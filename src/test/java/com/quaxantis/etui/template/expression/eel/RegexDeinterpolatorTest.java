@@ -0,0 +1,64 @@
+package com.quaxantis.etui.template.expression.eel;
+
+import com.quaxantis.etui.template.expression.Binding;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RegexDeinterpolator")
+class RegexDeinterpolatorTest {
+
+    @Test
+    @DisplayName("Provides the only binding of a value")
+    void deinterpolates() {
+        Optional<Binding> binding = deinterpolator("${title} - ${author} (${year})").deinterpolate("A Title - Some Author (2020)");
+
+        assertThat(binding).hasValueSatisfying(b -> {
+            assertThat(b.valueOf("title")).hasValue("A Title");
+            assertThat(b.valueOf("author")).hasValue("Some Author");
+            assertThat(b.valueOf("year")).hasValue("2020");
+            assertThat(b.valueOf("other")).isEmpty();
+            assertThat(b.score()).isEqualTo(1.0);
+        });
+    }
+
+    @Test
+    @DisplayName("Provides empty values for the identifiers of omitted optional parts")
+    void deinterpolatesOptionalParts() {
+        RegexDeinterpolator deinterpolator = deinterpolator("${title} [${'vol. '+?volume}]");
+
+        assertThat(deinterpolator.deinterpolate("A Title [vol. 2]"))
+                .hasValueSatisfying(b -> assertThat(b.valueOf("volume")).hasValue("2"));
+        assertThat(deinterpolator.deinterpolate("A Title []"))
+                .hasValueSatisfying(b -> {
+                    assertThat(b.valueOf("title")).hasValue("A Title");
+                    assertThat(b.valueOf("volume")).hasValue("");
+                });
+    }
+
+    @Test
+    @DisplayName("Provides no binding if the value is ambiguous or does not match")
+    void ambiguousOrNotMatching() {
+        RegexDeinterpolator deinterpolator = deinterpolator("${title} - ${author}");
+
+        assertThat(deinterpolator.deinterpolate("One - Two - Three")).isEmpty();
+        assertThat(deinterpolator.deinterpolate("One, Two")).isEmpty();
+        assertThat(deinterpolator("${title}${' ('+?year?+')'}").deinterpolate("A Title (2020)")).isEmpty();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @DisplayName("Does not compile expressions that do not map exactly onto a regular expression")
+    @ValueSource(strings = {"${first}${second}", "${title?:name}", "${title}.${title}", "${title?+suffix}", "${title}${' - '+?author}${year}"})
+    void unsupported(String expression) {
+        assertThat(RegexDeinterpolator.of(EELExpressionEvaluator.parser().parse(expression))).isEmpty();
+    }
+
+    private static RegexDeinterpolator deinterpolator(String expression) {
+        return RegexDeinterpolator.of(EELExpressionEvaluator.parser().parse(expression)).orElseThrow();
+    }
+}
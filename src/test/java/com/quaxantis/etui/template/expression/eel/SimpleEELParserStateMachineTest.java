@@ -0,0 +1,11 @@
+package com.quaxantis.etui.template.expression.eel;
+
+import com.quaxantis.etui.template.expression.parser.SimpleParser;
+
+class SimpleEELParserStateMachineTest extends SimpleEELParserTest {
+
+    @Override
+    SimpleParser<Expression> parser() {
+        return new SimpleParser<>(new EELLanguage(), SimpleParser.Mode.STATE_MACHINE);
+    }
+}
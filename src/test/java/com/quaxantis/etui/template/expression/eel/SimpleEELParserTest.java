@@ -16,7 +16,11 @@ class SimpleEELParserTest {
         System.setProperty(SimpleLogger.LOG_KEY_PREFIX + SimpleParser.class.getName() + ".Token", "info");
     }
 
-    SimpleParser parser = EELExpressionEvaluator.parser();
+    SimpleParser parser = parser();
+
+    SimpleParser<Expression> parser() {
+        return EELExpressionEvaluator.parser();
+    }
 
     @Test
     void parsesEmptyExpression() {
@@ -23,6 +23,14 @@ class IntRangeTest {
             assertThat(range.isEmpty()).isFalse();
         }
 
+        @Test
+        @DisplayName("only when it is valid")
+        void newIntRangeOfValid() {
+            assertThat(IntRange.ofValid(7, 18)).contains(IntRange.ofClosed(7, 17));
+            assertThat(IntRange.ofValid(18, 18)).contains(IntRange.of(18, 18));
+            assertThat(IntRange.ofValid(19, 18)).isEmpty();
+        }
+
         @Test
         @DisplayName("that is empty")
         void newIntRangeEmpty() {
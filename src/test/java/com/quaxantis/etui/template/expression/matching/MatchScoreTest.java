@@ -0,0 +1,50 @@
+package com.quaxantis.etui.template.expression.matching;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+@DisplayName("Match.Score")
+class MatchScoreTest {
+
+    @Test
+    @DisplayName("Multiplies the values of scores")
+    void times() {
+        Match.Score score = Match.Score.of(0.5, "half").times(Match.Score.of(0.5, "half"), "quarter").times(0.2, "fifth");
+
+        assertThat(score.value()).isEqualTo(0.05, offset(1e-9));
+        assertThat(score.reason()).isEqualTo("fifth");
+    }
+
+    @Test
+    @DisplayName("Only builds its reason when asked for")
+    void lazyReason() {
+        AtomicInteger built = new AtomicInteger();
+        Match.Score score = Match.Score.of(0.9, () -> "built " + built.incrementAndGet())
+                .times(0.5, () -> "times half " + built.incrementAndGet());
+
+        assertThat(score.value()).isEqualTo(0.45);
+        assertThat(built).hasValue(0);
+        assertThat(score.reason()).isEqualTo("times half 1");
+        assertThat(score).hasToString("0.45[times half 2]");
+    }
+
+    @Test
+    @DisplayName("Bounds the score of a match by the score its bound variables can reach once constrained")
+    void maxScore() {
+        Match flexible = Match.withGivenBindings("expression", "Foo Bar", Map.of("var", "Foo"))
+                .binding("expression", "var");
+        Match fixed = flexible.constrain(Constraint.toFixedRange(), "expression");
+        Match constrained = flexible.constrain(Constraint.toRange(RangeFlex.ofFixed(0, 2)).and(Constraint.toFixedRange()), "expression");
+
+        assertThat(flexible.score()).isLessThan(1.0);
+        assertThat(flexible.maxScore()).isEqualTo(1.0);
+        assertThat(fixed.maxScore()).isEqualTo(fixed.score()).isLessThan(1.0);
+        assertThat(constrained.score()).isEqualTo(1.0);
+    }
+}
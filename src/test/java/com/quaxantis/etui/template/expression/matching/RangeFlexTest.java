@@ -274,6 +274,32 @@ class RangeFlexTest {
 
         }
 
+        @Test
+        @DisplayName("or else nothing without throwing when constraints cannot be satisfied")
+        void constrainIfPossible() {
+            RangeFlex rangeFlex = RangeFlex.of(4, 6, 10, 12);
+
+            assertThat(rangeFlex.constrainIfPossible(Constraint.toMinLength(10))).isEmpty();
+            assertThat(rangeFlex.constrainIfPossible(Constraint.limitLeft(13))).isEmpty();
+            assertThat(rangeFlex.constrainIfPossible(Constraint.limitRight(3))).isEmpty();
+            assertThat(rangeFlex.constrainIfPossible(Constraint.toMinLength(9).and(Constraint.toMaxLength(8)))).isEmpty();
+            assertThat(rangeFlex.constrainIfPossible(Constraint.limitLeft(5).and(Constraint.limitRight(11))))
+                    .contains(rangeFlex.constrain(Constraint.limitLeft(5).and(Constraint.limitRight(11))));
+        }
+
+        @Test
+        @DisplayName("or else throws the reason the constraints cannot be satisfied")
+        void throwsWhenLimitedOutsideRange() {
+            RangeFlex rangeFlex = RangeFlex.of(4, 6, 10, 12);
+
+            assertThatThrownBy(() -> rangeFlex.constrain(Constraint.limitLeft(13)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("cannot be limited to [13 - ");
+            assertThatThrownBy(() -> rangeFlex.constrain(Constraint.limitLeft(5).and(Constraint.toMaxLength(2))))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("lowest length of 3 is strictly longer than the maximum length of 2");
+        }
+
     }
 
     @Nested
@@ -769,8 +795,17 @@ class RangeFlexTest {
         }
 
 
+        // Also verifies that concatenating without exceptions agrees
         static RangeFlex concat(RangeFlex left, RangeFlex right) {
-            return calculate((l, r) -> RangeFlex.concat(l, r).combined(), left, right);
+            var ifPossible = RangeFlex.concatIfPossible(left, right);
+            try {
+                RangeFlex combined = calculate((l, r) -> RangeFlex.concat(l, r).combined(), left, right);
+                assertThat(ifPossible.map(RangeFlex.ConcatResult::combined)).contains(combined);
+                return combined;
+            } catch (IllegalArgumentException exc) {
+                assertThat(ifPossible).isEmpty();
+                throw exc;
+            }
         }
     }
 
@@ -0,0 +1,61 @@
+package com.quaxantis.etui.template.expression.parser;
+
+import com.quaxantis.etui.template.expression.parser.SimpleParser.Language.Op;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenizerTest {
+
+    private static final Op<Object> OPEN = new Op<>() {};
+    private static final Op<Object> CLOSE = new Op<>() {};
+    private static final Op<Object> ELVIS = new Op<>() {};
+
+    private final Tokenizer<Object> tokenizer = new Tokenizer<>(Map.of("${", OPEN, "}", CLOSE, "?:", ELVIS));
+
+    @Test
+    @DisplayName("Splits alphanumeric characters, whitespace and other characters")
+    void splitsCharacterTypes() {
+        assertThat(tokens("ab 12!!cd"))
+                .containsExactly(new Token.AlphaNumeric("ab"),
+                                 new Token.Whitespace(" "),
+                                 new Token.AlphaNumeric("12"),
+                                 new Token.Other("!!"),
+                                 new Token.AlphaNumeric("cd"));
+    }
+
+    @Test
+    @DisplayName("Splits operators from other characters")
+    void splitsOperators() {
+        assertThat(tokens("${a?:b}!${c}}"))
+                .containsExactly(new Token.Operator<>(OPEN, "${"),
+                                 new Token.AlphaNumeric("a"),
+                                 new Token.Operator<>(ELVIS, "?:"),
+                                 new Token.AlphaNumeric("b"),
+                                 new Token.Operator<>(CLOSE, "}"),
+                                 new Token.Other("!"),
+                                 new Token.Operator<>(OPEN, "${"),
+                                 new Token.AlphaNumeric("c"),
+                                 new Token.Operator<>(CLOSE, "}"),
+                                 new Token.Operator<>(CLOSE, "}"));
+    }
+
+    @Test
+    @DisplayName("Produces no tokens for an empty string")
+    void tokenizesEmptyString() {
+        assertThat(tokenizer.tokenize("")).isExhausted();
+    }
+
+    private List<Token<Object>> tokens(String string) {
+        List<Token<Object>> tokens = new ArrayList<>();
+        Iterator<Token<Object>> iterator = tokenizer.tokenize(string);
+        iterator.forEachRemaining(tokens::add);
+        return tokens;
+    }
+}
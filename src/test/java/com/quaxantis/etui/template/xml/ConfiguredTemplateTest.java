@@ -112,6 +112,32 @@ class ConfiguredTemplateTest extends AbstractTemplateTest {
                 .containsExactlyInAnyOrder("attr:t1", "el:t1", "el:t2");
     }
 
+    @Test
+    @DisplayName("Provides the file types it applies to")
+    void testFileTypes() {
+        Template template = getTemplate("""
+                                        <template fileTypes='JPEG image/png'>
+                                            <label>test</label>
+                                            <variable name='var' />
+                                        </template>
+                                        """);
+
+        assertThat(template.fileTypes()).containsExactlyInAnyOrder("JPEG", "image/png");
+    }
+
+    @Test
+    @DisplayName("Applies to all file types by default")
+    void testNoFileTypes() {
+        Template template = getTemplate("""
+                                        <template>
+                                            <label>test</label>
+                                            <variable name='var' />
+                                        </template>
+                                        """);
+
+        assertThat(template.fileTypes()).isEmpty();
+    }
+
     @Test
     @DisplayName("Fails on unknown variable property")
     void testFailOnUnknownVariableProperty() {
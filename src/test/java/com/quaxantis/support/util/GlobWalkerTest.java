@@ -0,0 +1,83 @@
+package com.quaxantis.support.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("GlobWalker")
+class GlobWalkerTest {
+
+    @TempDir
+    Path root;
+
+    @BeforeEach
+    void createFiles() throws IOException {
+        for (String file : List.of("a.xml", "a.txt", "one/b.xml", "one/b.txt", "one/deep/c.xml", "two/d.xml")) {
+            Path path = this.root.resolve(file);
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, file);
+        }
+    }
+
+    @Test
+    @DisplayName("Finds the files matching a directory with the default pattern")
+    void findsFilesInDirectory() {
+        assertThat(walk(this.root.toString()))
+                .containsExactly("a.xml", "one/b.xml", "one/deep/c.xml", "two/d.xml");
+    }
+
+    @Test
+    @DisplayName("Finds the files matching a glob")
+    void findsFilesMatchingGlob() {
+        assertThat(walk(this.root + "/*/*.xml"))
+                .containsExactly("one/b.xml", "two/d.xml");
+        assertThat(walk(this.root + "/one/**.txt"))
+                .containsExactly("one/b.txt");
+    }
+
+    @Test
+    @DisplayName("Finds each file once for overlapping globs")
+    void findsFilesOnceForOverlappingGlobs() {
+        assertThat(walk(this.root.toString(), this.root + "/one", this.root + "/*.txt"))
+                .containsExactly("a.txt", "a.xml", "one/b.xml", "one/deep/c.xml", "two/d.xml");
+    }
+
+    @Test
+    @DisplayName("Finds a single file and ignores missing paths")
+    void findsSingleFile() {
+        assertThat(walk(this.root + "/one/b.txt", this.root + "/missing"))
+                .containsExactly("one/b.txt");
+    }
+
+    @Test
+    @DisplayName("Excludes directories that cannot contain matching files")
+    void excludesDirectories() {
+        GlobMatcher matcher = GlobMatcher.of(this.root + "/one/*.xml", "**.xml");
+
+        assertThat(matcher.mayMatchBelow(this.root.resolve("one"))).isTrue();
+        assertThat(matcher.mayMatchBelow(this.root.resolve("one/deep"))).isFalse();
+        assertThat(GlobMatcher.of(this.root + "/*/deep/*.xml", "**.xml").mayMatchBelow(this.root.resolve("two"))).isTrue();
+        assertThat(GlobMatcher.of(this.root + "/o*/deep/*.xml", "**.xml").mayMatchBelow(this.root.resolve("two"))).isFalse();
+        assertThat(GlobMatcher.of(this.root.toString(), "**.xml").mayMatchBelow(this.root.resolve("one/deep"))).isTrue();
+    }
+
+    private List<String> walk(String... patterns) {
+        List<GlobMatcher> matchers = Stream.of(patterns)
+                .map(pattern -> GlobMatcher.of(pattern, "**.xml"))
+                .toList();
+        return GlobWalker.of(matchers)
+                .walk()
+                .stream()
+                .map(path -> this.root.relativize(path).toString().replace('\\', '/'))
+                .toList();
+    }
+}
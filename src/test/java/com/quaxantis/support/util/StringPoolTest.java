@@ -0,0 +1,46 @@
+package com.quaxantis.support.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("StringPool")
+class StringPoolTest {
+
+    @Test
+    @DisplayName("Returns the pooled instance of equal strings")
+    void returnsPooledInstance() {
+        StringPool pool = new StringPool(16, 10);
+        String first = new String("Camera");
+        String second = new String("Camera");
+
+        assertThat(pool.intern(first)).isSameAs(first);
+        assertThat(pool.intern(second)).isSameAs(first);
+    }
+
+    @Test
+    @DisplayName("Does not pool strings longer than the maximum length")
+    void doesNotPoolLongStrings() {
+        StringPool pool = new StringPool(16, 3);
+        String first = new String("Camera");
+        String second = new String("Camera");
+
+        assertThat(pool.intern(first)).isSameAs(first);
+        assertThat(pool.intern(second)).isSameAs(second);
+    }
+
+    @Test
+    @DisplayName("Replaces strings in the same slot")
+    void replacesStringsInSameSlot() {
+        StringPool pool = new StringPool(1, 10);
+        String first = new String("Camera");
+        String other = new String("Lens");
+        String second = new String("Camera");
+
+        pool.intern(first);
+        assertThat(pool.intern(other)).isSameAs(other);
+        assertThat(pool.intern(second)).isSameAs(second);
+        assertThat(pool.intern(null)).isNull();
+    }
+}